@@ -0,0 +1,51 @@
+package com.sina_reidenbach.insurancePremium.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.InsurancePremiumApplication;
+import com.sina_reidenbach.insurancePremium.service.CalculateService;
+import com.sina_reidenbach.insurancePremium.service.EntityService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+/**
+ *************************************************************************************************************
+ * Startet die Anwendung einmal pro Benchmark-Fork mit dem Profil prod.                                      *
+ * Dabei wird die echte postcodes.csv in die H2-Datenbank geladen, sodass alle Messungen auf dem             *
+ * vollständigen Datenbestand laufen.                                                                        *
+ *************************************************************************************************************
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    ConfigurableApplicationContext context;
+    CalculateService calculateService;
+    EntityService entityService;
+    SpringTemplateEngine templateEngine;
+    ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(InsurancePremiumApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .properties("logging.level.root=WARN", "spring.jpa.show-sql=false",
+                        "logging.level.com.sina_reidenbach.insurancePremium.benchmark=INFO")
+                .run();
+        calculateService = context.getBean(CalculateService.class);
+        entityService = context.getBean(EntityService.class);
+        templateEngine = context.getBean(SpringTemplateEngine.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.sina_reidenbach.insurancePremium.benchmark;
+
+import com.sina_reidenbach.insurancePremium.service.PremiumFactorService;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+/**
+ *************************************************************************************************************
+ * Misst das Rendern von index.html mit dem Modell, das EntityService für die Startseite liefert.            *
+ * vehicles=fragments nutzt die vorgerenderte Fahrzeugauswahl, vehicles=list die Schleife über die           *
+ * Fahrzeugliste; postcodes=inline schreibt alle Postleitzahlen in die Seite, postcodes=lazy nicht.          *
+ * Die Größe der gerenderten Seite wird beim Start jeder Messung protokolliert.                              *
+ *************************************************************************************************************
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HomePageRenderBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomePageRenderBenchmark.class);
+
+    @Param({"fragments", "list"})
+    public String vehicles;
+
+    @Param({"lazy", "inline"})
+    public String postcodes;
+
+    private WebContext context;
+
+    @Setup(Level.Trial)
+    public void prepare(ApplicationState state) {
+        var homePage = state.entityService.getHomePageModel();
+        var variables = new HashMap<String, Object>();
+        variables.put("vehicleList", homePage.vehicleList());
+        if ("fragments".equals(vehicles)) {
+            variables.put("vehicleOptions", homePage.vehicleOptions());
+        }
+        if ("inline".equals(postcodes)) {
+            variables.put("postcodeList", state.context.getBean(PremiumFactorService.class).getTable()
+                    .getPostcodeIndex().findByPrefix("", Integer.MAX_VALUE));
+        }
+        var application = JakartaServletWebApplication.buildApplication(new MockServletContext());
+        var exchange = application.buildExchange(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+        context = new WebContext(exchange, Locale.GERMANY, variables);
+
+        var page = state.templateEngine.process("index", context);
+        logger.info("📄 index.html (vehicles={}, postcodes={}): {} Zeichen", vehicles, postcodes, page.length());
+    }
+
+    @Benchmark
+    public String renderIndex(ApplicationState state) {
+        return state.templateEngine.process("index", context);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sina_reidenbach.insurancePremium.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *************************************************************************************************************
+ * Misst die Postleitzahlen-Autovervollständigung für kurze (vorberechnete) und lange Präfixe.               *
+ *************************************************************************************************************
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostcodeBenchmark {
+
+    @Param({"5", "513", "5137", "51373"})
+    public String input;
+
+    @Benchmark
+    public List<String> filterPostcodesByInput(ApplicationState state) {
+        return state.entityService.filterPostcodesByInput(input);
+    }
+
+    @Benchmark
+    public String generatePostcodeOptions(ApplicationState state) {
+        return state.entityService.generatePostcodeOptions(input);
+    }
+}
@@ -0,0 +1,42 @@
+package com.sina_reidenbach.insurancePremium.benchmark;
+
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuote;
+import com.sina_reidenbach.insurancePremium.dto.PremiumRequest;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ *************************************************************************************************************
+ * Misst den Hot Path der Prämienberechnung gegen den vollständigen Datenbestand (Fahrzeug 14,               *
+ * Postleitzahl 51373, 2000 km).                                                                             *
+ *************************************************************************************************************
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PremiumCalculationBenchmark {
+
+    private static final PremiumRequest REQUEST = new PremiumRequest(14L, 2000, "51373");
+
+    @Benchmark
+    public double calculatePremium(ApplicationState state) {
+        return state.calculateService.calculatePremium(14L, 2000, "51373");
+    }
+
+    @Benchmark
+    public PremiumQuote quote(ApplicationState state) {
+        return state.calculateService.quote(REQUEST);
+    }
+
+    @Benchmark
+    public double premiumMatrixLookup(ApplicationState state) {
+        return state.calculateService.getPremiumMatrix().premium(14L, 0, 0);
+    }
+
+    @Benchmark
+    public double getRegionFactor(ApplicationState state) {
+        return state.entityService.getRegionFactor("51373");
+    }
+}
@@ -0,0 +1,56 @@
+package com.sina_reidenbach.insurancePremium.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuoteResponse;
+import com.sina_reidenbach.insurancePremium.dto.PremiumRequest;
+import com.sina_reidenbach.insurancePremium.dto.PremiumResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *************************************************************************************************************
+ * Vergleicht das Binden von /api/calculate über Maps mit dem Binden an PremiumRequest und                   *
+ * PremiumQuoteResponse (Lesen der Anfrage und Schreiben der Antwort, ohne Berechnung).                      *
+ * Verwendet wird der ObjectMapper der gestarteten Anwendung samt ihrer Jackson-Konfiguration.               *
+ * Mit -prof gc werden die Allokationen pro Aufruf ausgewiesen.                                              *
+ *************************************************************************************************************
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBindingBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+    private static final byte[] BODY = "{\"vehicleId\": 14, \"postcode\": \"51373\", \"annoKilometers\": 2000}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final double PREMIUM = 562.5;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void prepare(ApplicationState state) {
+        objectMapper = state.objectMapper;
+    }
+
+    @Benchmark
+    public byte[] mapBinding(Blackhole blackhole) throws Exception {
+        Map<String, Object> request = objectMapper.readValue(BODY, MAP_TYPE);
+        blackhole.consume(PremiumRequest.of(request));
+        return objectMapper.writeValueAsBytes(new PremiumResponse(Collections.singletonMap("premium", PREMIUM)));
+    }
+
+    @Benchmark
+    public byte[] typedBinding(Blackhole blackhole) throws Exception {
+        blackhole.consume(objectMapper.readValue(BODY, PremiumRequest.class));
+        return objectMapper.writeValueAsBytes(PremiumQuoteResponse.of(PREMIUM));
+    }
+}
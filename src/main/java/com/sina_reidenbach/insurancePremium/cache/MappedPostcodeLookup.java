@@ -0,0 +1,283 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.model.City;
+import com.sina_reidenbach.insurancePremium.model.Postcode;
+import com.sina_reidenbach.insurancePremium.model.Region;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ *************************************************************************************************************
+ * Schreibgeschützte Nachschlagedatei für Postleitzahl, Stadt und Region, die per FileChannel.map            *
+ * eingeblendet wird. Da die Datei über den Seiten-Cache des Betriebssystems gelesen wird, teilen sich       *
+ * mehrere Anwendungsinstanzen auf demselben Host denselben Speicher, solange sie dieselbe Datei einblenden. *
+ * Die Datei bedient nur die Nachschlagemethoden von EntityService; die Prämienberechnung arbeitet weiterhin *
+ * mit den Tabellen der PremiumFactorTable auf dem Java-Heap.                                                *
+ *                                                                                                           *
+ * Aufbau (alle Einträge mit fester Breite, Big Endian):                                                     *
+ * Kopf (24 Byte): Kennung, Version, Anzahl Regionen, Anzahl Städte, CRC32-Prüfsumme des Inhalts.            *
+ * Postleitzahlen (100.000 x 16 Byte, Index = Postleitzahl): Stadt-Index + 1, Regions-Index + 1, ID.         *
+ * Wie in der PremiumFactorTable ist die Region einer Postleitzahl die Region ihrer Stadt.                   *
+ * Regionen (je 24 Byte): ID, Faktor, Offset und Länge des Namens.                                           *
+ * Städte (je 24 Byte): ID, Regions-Index, Offset und Länge des Namens, Füllbytes.                           *
+ * Danach folgen die Namen als UTF-8.                                                                        *
+ *************************************************************************************************************
+ */
+public final class MappedPostcodeLookup {
+
+    private static final int MAGIC = 0x4950504C;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 16;
+    private static final int REGION_SIZE = 24;
+    private static final int CITY_SIZE = 24;
+
+    private final ByteBuffer buffer;
+    private final int regionCount;
+    private final int cityCount;
+    private final int regionBase;
+    private final int cityBase;
+    private final int nameBase;
+
+    private MappedPostcodeLookup(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Keine gültige Postleitzahlen-Nachschlagedatei");
+        }
+        this.buffer = buffer;
+        this.regionCount = buffer.getInt(8);
+        this.cityCount = buffer.getInt(12);
+        this.regionBase = HEADER_SIZE + PremiumFactorTable.POSTCODE_SLOTS * SLOT_SIZE;
+        this.cityBase = regionBase + regionCount * REGION_SIZE;
+        this.nameBase = cityBase + cityCount * CITY_SIZE;
+        if (regionCount < 0 || cityCount < 0 || nameBase > buffer.capacity()) {
+            throw new IOException("Beschädigte Postleitzahlen-Nachschlagedatei");
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Blendet eine Nachschlagedatei schreibgeschützt in den Speicher ein.                                   *
+     *                                                                                                       *
+     * @param path Der Pfad der Datei.                                                                       *
+     * @return Die eingeblendete Nachschlagedatei.                                                           *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder kein gültiges Format hat.           *
+     *********************************************************************************************************
+     */
+    public static MappedPostcodeLookup open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedPostcodeLookup(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Schreibt die Nachschlagedatei aus einer Stammdaten-Momentaufnahme, sofern sie fehlt oder ihre         *
+     * Prüfsumme nicht zum Inhalt der Momentaufnahme passt. Eine aktuelle Datei bleibt unverändert, sodass   *
+     * alle Instanzen dieselbe Datei und damit dieselben Seiten im Seiten-Cache einblenden. Eine neue Datei  *
+     * wird zuerst temporär geschrieben und anschließend umbenannt; bereits eingeblendete Dateien anderer    *
+     * Instanzen bleiben dadurch gültig.                                                                     *
+     *                                                                                                       *
+     * @param path Der Zielpfad.                                                                             *
+     * @param snapshot Die Stammdaten.                                                                       *
+     * @return True, wenn die Datei geschrieben wurde; false, wenn die vorhandene Datei aktuell ist.         *
+     * @throws IOException Wenn die Datei nicht geschrieben werden kann.                                     *
+     *********************************************************************************************************
+     */
+    public static boolean write(Path path, ReferenceDataSnapshot snapshot) throws IOException {
+        var names = new ByteArrayOutputStream();
+        var regionIndexById = new HashMap<Long, Integer>();
+        var cityIndexById = new HashMap<Long, Integer>();
+        var cityRegionIndexes = new int[snapshot.cities().size()];
+        var regionBase = HEADER_SIZE + PremiumFactorTable.POSTCODE_SLOTS * SLOT_SIZE;
+        var cityBase = regionBase + snapshot.regions().size() * REGION_SIZE;
+        var nameBase = cityBase + snapshot.cities().size() * CITY_SIZE;
+        var fixed = ByteBuffer.allocate(nameBase);
+
+        fixed.putInt(0, MAGIC);
+        fixed.putInt(4, VERSION);
+        fixed.putInt(8, snapshot.regions().size());
+        fixed.putInt(12, snapshot.cities().size());
+
+        for (int i = 0; i < snapshot.regions().size(); i++) {
+            var region = snapshot.regions().get(i);
+            var offset = regionBase + i * REGION_SIZE;
+            var name = region.name().getBytes(StandardCharsets.UTF_8);
+            regionIndexById.put(region.id(), i);
+            fixed.putLong(offset, region.id());
+            fixed.putDouble(offset + 8, region.factor());
+            fixed.putInt(offset + 16, names.size());
+            fixed.putInt(offset + 20, name.length);
+            names.write(name);
+        }
+
+        for (int i = 0; i < snapshot.cities().size(); i++) {
+            var city = snapshot.cities().get(i);
+            var offset = cityBase + i * CITY_SIZE;
+            var name = city.name().getBytes(StandardCharsets.UTF_8);
+            cityIndexById.put(city.id(), i);
+            cityRegionIndexes[i] = regionIndexById.getOrDefault(city.regionId(), -1);
+            fixed.putLong(offset, city.id());
+            fixed.putInt(offset + 8, cityRegionIndexes[i]);
+            fixed.putInt(offset + 12, names.size());
+            fixed.putInt(offset + 16, name.length);
+            names.write(name);
+        }
+
+        for (var postcode : snapshot.postcodes()) {
+            var slot = PremiumFactorTable.postcodeSlot(postcode.value());
+            var cityIndex = cityIndexById.get(postcode.cityId());
+            if (slot < 0 || cityIndex == null || cityRegionIndexes[cityIndex] < 0) {
+                continue;
+            }
+            var regionIndex = cityRegionIndexes[cityIndex];
+            var offset = HEADER_SIZE + slot * SLOT_SIZE;
+            if (fixed.getInt(offset) != 0) {
+                continue;
+            }
+            fixed.putInt(offset, cityIndex + 1);
+            fixed.putInt(offset + 4, regionIndex + 1);
+            fixed.putLong(offset + 8, postcode.id());
+        }
+
+        var nameBytes = names.toByteArray();
+        var crc = new CRC32();
+        crc.update(fixed.slice(HEADER_SIZE, nameBase - HEADER_SIZE));
+        crc.update(nameBytes);
+        fixed.putLong(16, crc.getValue());
+        if (storedChecksum(path, nameBase + nameBytes.length) == crc.getValue()) {
+            return false;
+        }
+
+        var directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            fixed.clear();
+            while (fixed.hasRemaining()) {
+                channel.write(fixed);
+            }
+            var nameBuffer = ByteBuffer.wrap(nameBytes);
+            while (nameBuffer.hasRemaining()) {
+                channel.write(nameBuffer);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private static long storedChecksum(Path path, long size) {
+        if (!Files.isReadable(path)) {
+            return -1;
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != size) {
+                return -1;
+            }
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) == -1) {
+                    return -1;
+                }
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return -1;
+            }
+            return header.getLong(16);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Sucht eine Postleitzahl samt Stadt und Region.                                                        *
+     *                                                                                                       *
+     * @param postcodeValue Die fünfstellige Postleitzahl.                                                   *
+     * @return Ein Optional mit einer neu erzeugten, nicht verwalteten Postcode-Entität, wenn gefunden.      *
+     *********************************************************************************************************
+     */
+    public Optional<Postcode> findPostcode(String postcodeValue) {
+        var offset = slotOffset(postcodeValue);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        var postcode = new Postcode(postcodeValue);
+        postcode.setId(buffer.getLong(offset + 8));
+        postcode.setCity(city(buffer.getInt(offset) - 1));
+        postcode.setRegion(region(buffer.getInt(offset + 4) - 1));
+        return Optional.of(postcode);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Sucht die Stadt einer Postleitzahl samt ihrer Region.                                                 *
+     *                                                                                                       *
+     * @param postcodeValue Die fünfstellige Postleitzahl.                                                   *
+     * @return Ein Optional mit einer neu erzeugten, nicht verwalteten City-Entität, wenn gefunden.          *
+     *********************************************************************************************************
+     */
+    public Optional<City> findCityByPostcode(String postcodeValue) {
+        var offset = slotOffset(postcodeValue);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(city(buffer.getInt(offset) - 1));
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Regionsfaktor einer Postleitzahl zurück, ohne Objekte zu erzeugen.                           *
+     *                                                                                                       *
+     * @param postcodeValue Die fünfstellige Postleitzahl.                                                   *
+     * @return Der Regionsfaktor oder Double.NaN, wenn die Postleitzahl unbekannt ist.                       *
+     *********************************************************************************************************
+     */
+    public double regionFactor(String postcodeValue) {
+        var offset = slotOffset(postcodeValue);
+        if (offset < 0) {
+            return Double.NaN;
+        }
+        return buffer.getDouble(regionBase + (buffer.getInt(offset + 4) - 1) * REGION_SIZE + 8);
+    }
+
+    private int slotOffset(String postcodeValue) {
+        var slot = PremiumFactorTable.postcodeSlot(postcodeValue);
+        if (slot < 0) {
+            return -1;
+        }
+        var offset = HEADER_SIZE + slot * SLOT_SIZE;
+        return buffer.getInt(offset) == 0 ? -1 : offset;
+    }
+
+    private City city(int index) {
+        var offset = cityBase + index * CITY_SIZE;
+        var city = new City(name(buffer.getInt(offset + 12), buffer.getInt(offset + 16)));
+        city.setId(buffer.getLong(offset));
+        var regionIndex = buffer.getInt(offset + 8);
+        city.setRegion(regionIndex < 0 ? null : region(regionIndex));
+        return city;
+    }
+
+    private Region region(int index) {
+        var offset = regionBase + index * REGION_SIZE;
+        return new Region(buffer.getLong(offset),
+                name(buffer.getInt(offset + 16), buffer.getInt(offset + 20)),
+                buffer.getDouble(offset + 8));
+    }
+
+    private String name(int offset, int length) {
+        var bytes = new byte[length];
+        buffer.get(nameBase + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+/**
+ *************************************************************************************************************
+ * Vorberechnete HTML-Fragmente für die Postleitzahlen-Autovervollständigung.                                *
+ * Für alle Präfixe mit ein bis drei Ziffern werden die option-Elemente einmalig erzeugt und als Bytes       *
+ * abgelegt. Längere Präfixe liefern nur wenige Treffer und werden bei Bedarf direkt gerendert.              *
+ *************************************************************************************************************
+ */
+public final class PostcodeOptionFragments {
+
+    public static final int MAX_PRECOMPUTED_PREFIX_LENGTH = 3;
+
+    static final PostcodeOptions NO_INPUT = PostcodeOptions.of("<option value=\"\">Keine Postleitzahl eingegeben</option>");
+    static final PostcodeOptions NO_RESULTS = PostcodeOptions.of("<option value=\"\">Keine Postleitzahlen gefunden</option>");
+
+    private final PostcodePrefixIndex index;
+    private final int limit;
+    private final PostcodeOptions[][] fragments = new PostcodeOptions[MAX_PRECOMPUTED_PREFIX_LENGTH + 1][];
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor, der alle Fragmente für Präfixe mit ein bis drei Ziffern erzeugt.                         *
+     *                                                                                                       *
+     * @param index Der Präfix-Index über alle Postleitzahlen.                                               *
+     * @param limit Die maximale Anzahl an Optionen pro Fragment.                                            *
+     *********************************************************************************************************
+     */
+    public PostcodeOptionFragments(PostcodePrefixIndex index, int limit) {
+        this.index = index;
+        this.limit = limit;
+        var count = 1;
+        for (int length = 1; length <= MAX_PRECOMPUTED_PREFIX_LENGTH; length++) {
+            count *= 10;
+            fragments[length] = new PostcodeOptions[count];
+            for (int value = 0; value < count; value++) {
+                fragments[length][value] = build(prefix(value, length));
+            }
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Prüft, ob die Fragmente aus dem angegebenen Index mit dem angegebenen Limit erzeugt wurden.           *
+     *                                                                                                       *
+     * @param index Der aktuelle Präfix-Index.                                                               *
+     * @param limit Das aktuelle Limit.                                                                      *
+     * @return True, wenn die Fragmente noch aktuell sind.                                                   *
+     *********************************************************************************************************
+     */
+    public boolean isBuiltFrom(PostcodePrefixIndex index, int limit) {
+        return this.index == index && this.limit == limit;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Liefert die option-Elemente für eine Benutzereingabe.                                                 *
+     *                                                                                                       *
+     * @param input Die bisher eingegebenen Ziffern der Postleitzahl.                                        *
+     * @return Das vorberechnete oder direkt gerenderte Fragment.                                            *
+     *********************************************************************************************************
+     */
+    public PostcodeOptions render(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return NO_INPUT;
+        }
+        if (input.length() <= MAX_PRECOMPUTED_PREFIX_LENGTH) {
+            var value = 0;
+            for (int i = 0; i < input.length(); i++) {
+                var digit = input.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return NO_RESULTS;
+                }
+                value = value * 10 + digit;
+            }
+            return fragments[input.length()][value];
+        }
+        return build(input);
+    }
+
+    private PostcodeOptions build(String prefix) {
+        var postcodes = index.findByPrefix(prefix, limit);
+        if (postcodes.isEmpty()) {
+            return NO_RESULTS;
+        }
+        var html = new StringBuilder(postcodes.size() * 40);
+        for (String postcode : postcodes) {
+            html.append("<option value=\"").append(postcode).append("\">").append(postcode).append("</option>");
+        }
+        return PostcodeOptions.of(html.toString());
+    }
+
+    private static String prefix(int value, int length) {
+        var chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+}
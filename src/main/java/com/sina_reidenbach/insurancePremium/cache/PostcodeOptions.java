@@ -0,0 +1,38 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ *************************************************************************************************************
+ * Fertig kodierte HTML-Option-Liste für die Postleitzahlen-Autovervollständigung samt ETag.                 *
+ *                                                                                                           *
+ * @param body Die UTF-8-kodierten option-Elemente.                                                          *
+ * @param etag Der aus dem Inhalt berechnete ETag (ohne Anführungszeichen).                                  *
+ *************************************************************************************************************
+ */
+public record PostcodeOptions(byte[] body, String etag) {
+
+    /**
+     *********************************************************************************************************
+     * Kodiert die HTML-Option-Liste und berechnet den zugehörigen ETag.                                     *
+     *                                                                                                       *
+     * @param html Die HTML-Option-Liste.                                                                    *
+     * @return Die kodierte Option-Liste.                                                                    *
+     *********************************************************************************************************
+     */
+    public static PostcodeOptions of(String html) {
+        var serialized = SerializedResponse.of(html.getBytes(StandardCharsets.UTF_8));
+        return new PostcodeOptions(serialized.body(), serialized.etag());
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Option-Liste als Text zurück.                                                                *
+     *                                                                                                       *
+     * @return Die HTML-Option-Liste.                                                                        *
+     *********************************************************************************************************
+     */
+    public String html() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *************************************************************************************************************
+ * Unveränderlicher Präfix-Index über alle bekannten Postleitzahlen.                                         *
+ * Die Postleitzahlen liegen aufsteigend sortiert als int-Array vor. Ein Präfix entspricht einem             *
+ * zusammenhängenden Zahlenbereich, dessen Grenzen per Binärsuche ermittelt werden (O(log n + k)).           *
+ *************************************************************************************************************
+ */
+public final class PostcodePrefixIndex {
+
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000};
+
+    private final int[] postcodes;
+    private final List<String> values;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param sortedPostcodes Die aufsteigend sortierten Postleitzahlen als Zahlen zwischen 0 und 99999.     *
+     *********************************************************************************************************
+     */
+    public PostcodePrefixIndex(int[] sortedPostcodes) {
+        this.postcodes = sortedPostcodes.clone();
+        var formatted = new String[postcodes.length];
+        for (int i = 0; i < postcodes.length; i++) {
+            formatted[i] = format(postcodes[i]);
+        }
+        this.values = Collections.unmodifiableList(Arrays.asList(formatted));
+    }
+
+    /**
+     *********************************************************************************************************
+     * Sucht alle Postleitzahlen, die mit dem angegebenen Präfix beginnen.                                   *
+     *                                                                                                       *
+     * @param prefix Der Präfix aus bis zu fünf Ziffern. Ein leerer Präfix passt auf alle Postleitzahlen.    *
+     * @param limit Die maximale Anzahl an Treffern.                                                         *
+     * @return Eine unveränderliche Sicht auf die sortierten Treffer, leer bei ungültigem Präfix.            *
+     *********************************************************************************************************
+     */
+    public List<String> findByPrefix(String prefix, int limit) {
+        if (prefix == null || prefix.length() > 5 || limit <= 0) {
+            return List.of();
+        }
+        var value = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            var digit = prefix.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return List.of();
+            }
+            value = value * 10 + digit;
+        }
+        var scale = POWERS_OF_TEN[5 - prefix.length()];
+        var from = lowerBound(value * scale);
+        var to = lowerBound((value + 1) * scale);
+        return values.subList(from, to - from > limit ? from + limit : to);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Anzahl der indizierten Postleitzahlen zurück.                                                *
+     *                                                                                                       *
+     * @return Die Anzahl der Postleitzahlen.                                                                *
+     *********************************************************************************************************
+     */
+    public int size() {
+        return postcodes.length;
+    }
+
+    private int lowerBound(int key) {
+        var low = 0;
+        var high = postcodes.length;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (postcodes[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String format(int postcode) {
+        var chars = new char[5];
+        for (int i = 4; i >= 0; i--) {
+            chars[i] = (char) ('0' + postcode % 10);
+            postcode /= 10;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,397 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.model.Anno_Kilometers;
+import com.sina_reidenbach.insurancePremium.model.Region;
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import java.util.*;
+
+/**
+ *************************************************************************************************************
+ * Unveränderliche Momentaufnahme aller Faktoren, die für die Prämienberechnung benötigt werden.             *
+ * Fahrzeugfaktoren liegen in einem nach ID indizierten Array, die Kilometerbereiche als sortierte           *
+ * Intervalle und die Regionsfaktoren in einem dichten Array, das über die fünfstellige Postleitzahl         *
+ * indiziert wird und die Ordnungszahl der Region enthält.                                                   *
+ * Nach dem Aufbau erfolgen keine Datenbankzugriffe mehr.                                                    *
+ *************************************************************************************************************
+ */
+public final class PremiumFactorTable {
+
+    /**
+     *********************************************************************************************************
+     * Anzahl der möglichen fünfstelligen Postleitzahlen (00000 bis 99999).                                  *
+     *********************************************************************************************************
+     */
+    public static final int POSTCODE_SLOTS = 100_000;
+
+    public static final PremiumFactorTable EMPTY = new PremiumFactorTable(
+            new double[0], new String[0], new int[0], new int[0], new double[0],
+            new double[0], new String[0], new short[POSTCODE_SLOTS]);
+
+    private final double[] vehicleFactors;
+    private final String[] vehicleNames;
+    private final int[] kmMin;
+    private final int[] kmMax;
+    private final double[] kmFactors;
+    private final double[] regionFactors;
+    private final String[] regionNames;
+    private final short[] regionByPostcode;
+    private final int postcodeCount;
+    private final PostcodePrefixIndex postcodeIndex;
+
+    private PremiumFactorTable(double[] vehicleFactors, String[] vehicleNames,
+                               int[] kmMin, int[] kmMax, double[] kmFactors,
+                               double[] regionFactors, String[] regionNames,
+                               short[] regionByPostcode) {
+        this.vehicleFactors = vehicleFactors;
+        this.vehicleNames = vehicleNames;
+        this.kmMin = kmMin;
+        this.kmMax = kmMax;
+        this.kmFactors = kmFactors;
+        this.regionFactors = regionFactors;
+        this.regionNames = regionNames;
+        this.regionByPostcode = regionByPostcode;
+        var sortedPostcodes = new int[POSTCODE_SLOTS];
+        var count = 0;
+        for (int slot = 0; slot < regionByPostcode.length; slot++) {
+            if (regionByPostcode[slot] != 0) {
+                sortedPostcodes[count++] = slot;
+            }
+        }
+        this.postcodeCount = count;
+        this.postcodeIndex = new PostcodePrefixIndex(Arrays.copyOf(sortedPostcodes, count));
+    }
+
+    /**
+     *********************************************************************************************************
+     * Baut eine neue Faktortabelle aus den geladenen Entitäten auf.                                         *
+     *                                                                                                       *
+     * @param vehicles Alle Fahrzeuge.                                                                       *
+     * @param annoKilometers Alle Kilometerbereiche.                                                         *
+     * @param regions Alle Regionen.                                                                         *
+     * @param postcodeRegionIds Paare aus Postleitzahl (String) und Regions-ID (Long).                       *
+     * @return Die neue, unveränderliche Faktortabelle.                                                      *
+     *********************************************************************************************************
+     */
+    public static PremiumFactorTable of(List<Vehicle> vehicles,
+                                        List<Anno_Kilometers> annoKilometers,
+                                        List<Region> regions,
+                                        List<Object[]> postcodeRegionIds) {
+        var maxVehicleId = vehicles.stream().mapToLong(Vehicle::getId).max().orElse(-1);
+        var vehicleFactors = new double[(int) (maxVehicleId + 1)];
+        var vehicleNames = new String[vehicleFactors.length];
+        Arrays.fill(vehicleFactors, Double.NaN);
+        for (Vehicle vehicle : vehicles) {
+            vehicleFactors[vehicle.getId().intValue()] = vehicle.getFactor();
+            vehicleNames[vehicle.getId().intValue()] = vehicle.getName();
+        }
+
+        var bands = annoKilometers.stream()
+                .sorted(Comparator.comparingInt(Anno_Kilometers::getMin))
+                .toList();
+        var kmMin = new int[bands.size()];
+        var kmMax = new int[bands.size()];
+        var kmFactors = new double[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            kmMin[i] = bands.get(i).getMin();
+            kmMax[i] = bands.get(i).getMax();
+            kmFactors[i] = bands.get(i).getFactor();
+        }
+
+        var regionFactors = new double[regions.size()];
+        var regionNames = new String[regions.size()];
+        var regionIndexById = new HashMap<Long, Integer>();
+        for (int i = 0; i < regions.size(); i++) {
+            regionFactors[i] = regions.get(i).getFactor();
+            regionNames[i] = regions.get(i).getName();
+            regionIndexById.put(regions.get(i).getId(), i);
+        }
+
+        var regionByPostcode = new short[POSTCODE_SLOTS];
+        for (Object[] row : postcodeRegionIds) {
+            var slot = postcodeSlot((String) row[0]);
+            var regionIndex = regionIndexById.get((Long) row[1]);
+            if (slot >= 0 && regionIndex != null && regionByPostcode[slot] == 0) {
+                regionByPostcode[slot] = (short) (regionIndex + 1);
+            }
+        }
+
+        return new PremiumFactorTable(vehicleFactors, vehicleNames, kmMin, kmMax, kmFactors,
+                regionFactors, regionNames, regionByPostcode);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Prüft, ob die Tabelle Daten enthält.                                                                  *
+     *                                                                                                       *
+     * @return True, wenn weder Fahrzeuge, Kilometerbereiche noch Postleitzahlen geladen wurden.             *
+     *********************************************************************************************************
+     */
+    public boolean isEmpty() {
+        return vehicleFactors.length == 0 && kmFactors.length == 0 && postcodeCount == 0;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Faktor eines Fahrzeugs zurück.                                                               *
+     *                                                                                                       *
+     * @param vehicleId Die ID des Fahrzeugs.                                                                *
+     * @return Der Fahrzeugfaktor oder Double.NaN, wenn das Fahrzeug unbekannt ist.                          *
+     *********************************************************************************************************
+     */
+    public double vehicleFactor(long vehicleId) {
+        if (vehicleId < 0 || vehicleId >= vehicleFactors.length) {
+            return Double.NaN;
+        }
+        return vehicleFactors[(int) vehicleId];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Namen eines Fahrzeugs zurück.                                                                *
+     *                                                                                                       *
+     * @param vehicleId Die ID des Fahrzeugs.                                                                *
+     * @return Der Name des Fahrzeugs oder null, wenn das Fahrzeug unbekannt ist.                            *
+     *********************************************************************************************************
+     */
+    public String vehicleName(long vehicleId) {
+        if (vehicleId < 0 || vehicleId >= vehicleNames.length) {
+            return null;
+        }
+        return vehicleNames[(int) vehicleId];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Sucht per Binärsuche den Kilometerbereich, der kmMin und kmMax vollständig umfasst.                   *
+     *                                                                                                       *
+     * @param kmMin Minimale Kilometeranzahl.                                                                *
+     * @param kmMax Maximale Kilometeranzahl.                                                                *
+     * @return Der Index des Kilometerbereichs oder -1, wenn kein Bereich passt.                             *
+     *********************************************************************************************************
+     */
+    public int findKmBand(int kmMin, int kmMax) {
+        int low = 0;
+        int high = this.kmMin.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (this.kmMin[mid] <= kmMin) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0 || this.kmMax[candidate] < kmMax) {
+            return -1;
+        }
+        return candidate;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Faktor eines Kilometerbereichs zurück.                                                       *
+     *                                                                                                       *
+     * @param bandIndex Der Index aus {@link #findKmBand(int, int)}.                                         *
+     * @return Der Faktor des Kilometerbereichs.                                                             *
+     *********************************************************************************************************
+     */
+    public double kmFactor(int bandIndex) {
+        return kmFactors[bandIndex];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Anzahl der Fahrzeug-Einträge zurück; gültige Fahrzeug-IDs liegen zwischen 0 und diesem Wert. *
+     *                                                                                                       *
+     * @return Die größte Fahrzeug-ID plus 1.                                                                *
+     *********************************************************************************************************
+     */
+    public int getVehicleSlots() {
+        return vehicleFactors.length;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Anzahl der Kilometerbereiche zurück.                                                         *
+     *                                                                                                       *
+     * @return Die Anzahl der Kilometerbereiche.                                                             *
+     *********************************************************************************************************
+     */
+    public int getKmBandCount() {
+        return kmFactors.length;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Untergrenze eines Kilometerbereichs zurück.                                                  *
+     *                                                                                                       *
+     * @param bandIndex Der Index des Kilometerbereichs.                                                     *
+     * @return Die minimale Kilometeranzahl.                                                                 *
+     *********************************************************************************************************
+     */
+    public int kmMin(int bandIndex) {
+        return kmMin[bandIndex];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Obergrenze eines Kilometerbereichs zurück.                                                   *
+     *                                                                                                       *
+     * @param bandIndex Der Index des Kilometerbereichs.                                                     *
+     * @return Die maximale Kilometeranzahl.                                                                 *
+     *********************************************************************************************************
+     */
+    public int kmMax(int bandIndex) {
+        return kmMax[bandIndex];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Anzahl der Regionen zurück.                                                                  *
+     *                                                                                                       *
+     * @return Die Anzahl der Regionen.                                                                      *
+     *********************************************************************************************************
+     */
+    public int getRegionCount() {
+        return regionFactors.length;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Faktor einer Region anhand ihrer Ordnungszahl zurück.                                        *
+     *                                                                                                       *
+     * @param regionIndex Die Ordnungszahl der Region.                                                       *
+     * @return Der Regionsfaktor.                                                                            *
+     *********************************************************************************************************
+     */
+    public double regionFactorAt(int regionIndex) {
+        return regionFactors[regionIndex];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Namen einer Region anhand ihrer Ordnungszahl zurück.                                         *
+     *                                                                                                       *
+     * @param regionIndex Die Ordnungszahl der Region.                                                       *
+     * @return Der Name der Region.                                                                          *
+     *********************************************************************************************************
+     */
+    public String regionNameAt(int regionIndex) {
+        return regionNames[regionIndex];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Regionsfaktor für eine Postleitzahl zurück.                                                  *
+     *                                                                                                       *
+     * @param postcode Die Postleitzahl.                                                                     *
+     * @return Der Regionsfaktor oder Double.NaN, wenn die Postleitzahl unbekannt ist.                       *
+     *********************************************************************************************************
+     */
+    public double regionFactor(String postcode) {
+        var slot = postcodeSlot(postcode);
+        if (slot < 0 || regionByPostcode[slot] == 0) {
+            return Double.NaN;
+        }
+        return regionFactors[regionByPostcode[slot] - 1];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den Namen der Region einer Postleitzahl zurück.                                                  *
+     *                                                                                                       *
+     * @param postcode Die Postleitzahl.                                                                     *
+     * @return Der Name der Region oder null, wenn die Postleitzahl unbekannt ist.                           *
+     *********************************************************************************************************
+     */
+    public String regionName(String postcode) {
+        var slot = postcodeSlot(postcode);
+        if (slot < 0 || regionByPostcode[slot] == 0) {
+            return null;
+        }
+        return regionNames[regionByPostcode[slot] - 1];
+    }
+
+    /**
+     *********************************************************************************************************
+     * Löst Postleitzahl, Fahrzeug und Kilometerleistung eines Angebots in einem Schritt auf.                *
+     *                                                                                                       *
+     * @param vehicleId Die ID des Fahrzeugs oder null.                                                      *
+     * @param annoKilometers Die Jahreskilometerleistung oder null.                                          *
+     * @param postcode Die Postleitzahl oder null.                                                           *
+     * @return Die aufgelösten Faktoren und Namen; fehlende Werte sind Double.NaN, null bzw. -1.             *
+     *********************************************************************************************************
+     */
+    public QuoteContext resolve(Long vehicleId, Integer annoKilometers, String postcode) {
+        var slot = postcodeSlot(postcode);
+        var regionIndex = slot >= 0 ? regionByPostcode[slot] - 1 : -1;
+        var kmBand = annoKilometers != null && annoKilometers > 0 ? findKmBand(annoKilometers, annoKilometers) : -1;
+        return new QuoteContext(postcode, regionIndex,
+                regionIndex >= 0 ? regionNames[regionIndex] : null,
+                regionIndex >= 0 ? regionFactors[regionIndex] : Double.NaN,
+                vehicleId,
+                vehicleId != null ? vehicleName(vehicleId) : null,
+                vehicleId != null ? vehicleFactor(vehicleId) : Double.NaN,
+                kmBand,
+                kmBand >= 0 ? kmFactors[kmBand] : Double.NaN);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Prüft, ob eine Postleitzahl in der Tabelle enthalten ist.                                             *
+     *                                                                                                       *
+     * @param postcode Die Postleitzahl.                                                                     *
+     * @return True, wenn die Postleitzahl bekannt ist.                                                      *
+     *********************************************************************************************************
+     */
+    public boolean containsPostcode(String postcode) {
+        var slot = postcodeSlot(postcode);
+        return slot >= 0 && regionByPostcode[slot] != 0;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Anzahl der bekannten Postleitzahlen zurück.                                                  *
+     *                                                                                                       *
+     * @return Die Anzahl der Postleitzahlen mit zugeordneter Region.                                        *
+     *********************************************************************************************************
+     */
+    public int getPostcodeCount() {
+        return postcodeCount;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt den sortierten Präfix-Index über alle bekannten Postleitzahlen zurück.                           *
+     *                                                                                                       *
+     * @return Der Präfix-Index für die Postleitzahlen-Autovervollständigung.                                *
+     *********************************************************************************************************
+     */
+    public PostcodePrefixIndex getPostcodeIndex() {
+        return postcodeIndex;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Wandelt eine fünfstellige Postleitzahl ohne Objekterzeugung in ihren Array-Index um.                  *
+     *                                                                                                       *
+     * @param postcode Die Postleitzahl als Text.                                                            *
+     * @return Der Index zwischen 0 und 99999 oder -1, wenn die Eingabe keine fünfstellige Zahl ist.         *
+     *********************************************************************************************************
+     */
+    public static int postcodeSlot(String postcode) {
+        if (postcode == null || postcode.length() != 5) {
+            return -1;
+        }
+        var slot = 0;
+        for (int i = 0; i < 5; i++) {
+            var digit = postcode.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            slot = slot * 10 + digit;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,89 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+/**
+ *************************************************************************************************************
+ * Vorberechnete Prämien für alle Kombinationen aus Fahrzeug, Kilometerbereich und Region.                   *
+ * Da die Prämie nur vom Produkt der drei Faktoren und dem Basiswert abhängt, wird sie einmal je             *
+ * {@link PremiumFactorTable} und Basiswert berechnet und danach nur noch nachgeschlagen.                    *
+ * Die Werte liegen in einem flachen Array, indiziert über Fahrzeug-ID, Kilometerbereich und Ordnungszahl    *
+ * der Region; nicht vergebene Fahrzeug-IDs enthalten Double.NaN.                                            *
+ *************************************************************************************************************
+ */
+public final class PremiumMatrix {
+
+    private final PremiumFactorTable table;
+    private final int basis;
+    private final int bands;
+    private final int regions;
+    private final double[] premiums;
+
+    private PremiumMatrix(PremiumFactorTable table, int basis) {
+        this.table = table;
+        this.basis = basis;
+        this.bands = table.getKmBandCount();
+        this.regions = table.getRegionCount();
+        this.premiums = new double[table.getVehicleSlots() * bands * regions];
+        for (int vehicle = 0; vehicle < table.getVehicleSlots(); vehicle++) {
+            var vehicleFactor = table.vehicleFactor(vehicle);
+            for (int band = 0; band < bands; band++) {
+                var kmFactor = table.kmFactor(band);
+                for (int region = 0; region < regions; region++) {
+                    premiums[(vehicle * bands + band) * regions + region] =
+                            kmFactor * vehicleFactor * table.regionFactorAt(region) * basis;
+                }
+            }
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Berechnet die Prämien für alle Kombinationen einer Faktortabelle.                                     *
+     *                                                                                                       *
+     * @param table Die Faktortabelle.                                                                       *
+     * @param basis Der Basiswert der Prämie (insurance.premium.basis).                                      *
+     * @return Die vorberechneten Prämien.                                                                   *
+     *********************************************************************************************************
+     */
+    public static PremiumMatrix of(PremiumFactorTable table, int basis) {
+        return new PremiumMatrix(table, basis);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Prüft, ob die Prämien für genau diese Faktortabelle und diesen Basiswert berechnet wurden.            *
+     *                                                                                                       *
+     * @param table Die aktuelle Faktortabelle.                                                              *
+     * @param basis Der aktuelle Basiswert.                                                                  *
+     * @return True, wenn die Prämien weiterverwendet werden können.                                         *
+     *********************************************************************************************************
+     */
+    public boolean isFor(PremiumFactorTable table, int basis) {
+        return this.table == table && this.basis == basis;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die vorberechnete Prämie zurück.                                                                 *
+     *                                                                                                       *
+     * @param vehicleId Die ID des Fahrzeugs.                                                                *
+     * @param bandIndex Der Index des Kilometerbereichs.                                                     *
+     * @param regionIndex Die Ordnungszahl der Region.                                                       *
+     * @return Die Prämie oder Double.NaN, wenn eine Angabe außerhalb der Tabelle liegt.                     *
+     *********************************************************************************************************
+     */
+    public double premium(long vehicleId, int bandIndex, int regionIndex) {
+        if (vehicleId < 0 || vehicleId >= table.getVehicleSlots()
+                || bandIndex < 0 || bandIndex >= bands || regionIndex < 0 || regionIndex >= regions) {
+            return Double.NaN;
+        }
+        return premiums[((int) vehicleId * bands + bandIndex) * regions + regionIndex];
+    }
+
+    public PremiumFactorTable getTable() {
+        return table;
+    }
+
+    public int getBasis() {
+        return basis;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+/**
+ *************************************************************************************************************
+ * Die für ein Angebot aufgelösten Stammdaten: Postleitzahl mit Region und Regionsfaktor, Fahrzeug mit       *
+ * Fahrzeugfaktor sowie Kilometerbereich mit Kilometerfaktor.                                                *
+ * Wird in einem Schritt aus der {@link PremiumFactorTable} erzeugt und anschließend für die Prämie, die     *
+ * angezeigte Region und den Statistik-Eintrag verwendet, ohne dieselben Daten erneut nachzuschlagen.        *
+ * Nicht gefundene Faktoren sind Double.NaN, ein nicht gefundener Kilometerbereich hat den Index -1.         *
+ *                                                                                                           *
+ * @param postcode Die Postleitzahl.                                                                         *
+ * @param regionIndex Die Ordnungszahl der Region oder -1, wenn die Postleitzahl unbekannt ist.              *
+ * @param regionName Der Name der Region oder null, wenn die Postleitzahl unbekannt ist.                     *
+ * @param regionFactor Der Regionsfaktor.                                                                    *
+ * @param vehicleId Die ID des Fahrzeugs.                                                                    *
+ * @param vehicleName Der Name des Fahrzeugs oder null, wenn das Fahrzeug unbekannt ist.                     *
+ * @param vehicleFactor Der Fahrzeugfaktor.                                                                  *
+ * @param kmBand Der Index des Kilometerbereichs.                                                            *
+ * @param kmFactor Der Kilometerfaktor.                                                                      *
+ *************************************************************************************************************
+ */
+public record QuoteContext(String postcode, int regionIndex, String regionName, double regionFactor,
+                           Long vehicleId, String vehicleName, double vehicleFactor,
+                           int kmBand, double kmFactor) {
+
+    public boolean hasRegion() {
+        return regionIndex >= 0;
+    }
+
+    public boolean hasVehicle() {
+        return !Double.isNaN(vehicleFactor);
+    }
+
+    public boolean hasKmBand() {
+        return kmBand >= 0;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt das Produkt aus Kilometer-, Fahrzeug- und Regionsfaktor zurück.                                  *
+     *                                                                                                       *
+     * @return Der gesamte Prämienfaktor oder Double.NaN, wenn ein Faktor fehlt.                             *
+     *********************************************************************************************************
+     */
+    public double premiumFactor() {
+        return kmFactor * vehicleFactor * regionFactor;
+    }
+}
@@ -0,0 +1,161 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *************************************************************************************************************
+ * Binäre Momentaufnahme aller Stammdaten (Kilometerbereiche, Fahrzeuge, Regionen, Städte, Postleitzahlen).  *
+ * Die Datei besteht aus einem Kopf (Kennung, Formatversion, Prüfsumme der Quelldaten) und fünf Abschnitten  *
+ * mit je einer Anzahl und den Datensätzen. Zahlen werden in fester Breite, Texte als UTF-8 mit              *
+ * vorangestellter Länge abgelegt. Beim Lesen wird die Datei per FileChannel.map in den Speicher             *
+ * eingeblendet und in einem Durchgang dekodiert.                                                            *
+ *************************************************************************************************************
+ */
+public record ReferenceDataSnapshot(long sourceChecksum,
+                                    List<AnnoKilometersRow> annoKilometers,
+                                    List<VehicleRow> vehicles,
+                                    List<RegionRow> regions,
+                                    List<CityRow> cities,
+                                    List<PostcodeRow> postcodes) {
+
+    private static final int MAGIC = 0x49505253;
+    private static final int VERSION = 2;
+
+    public record AnnoKilometersRow(long id, int min, int max, double factor) {
+    }
+
+    public record VehicleRow(long id, String name, double factor) {
+    }
+
+    public record RegionRow(long id, String name, double factor) {
+    }
+
+    public record CityRow(long id, String name, long regionId) {
+    }
+
+    public record PostcodeRow(long id, String value, long cityId, long regionId) {
+    }
+
+    /**
+     *********************************************************************************************************
+     * Schreibt die Momentaufnahme in eine Datei. Es wird zuerst eine temporäre Datei geschrieben und diese  *
+     * anschließend umbenannt, sodass ein Leser nie eine halb geschriebene Datei sieht.                      *
+     *                                                                                                       *
+     * @param path Der Zielpfad.                                                                             *
+     * @throws IOException Wenn die Datei nicht geschrieben werden kann.                                     *
+     *********************************************************************************************************
+     */
+    public void write(Path path) throws IOException {
+        var directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceChecksum);
+
+            out.writeInt(annoKilometers.size());
+            for (var row : annoKilometers) {
+                out.writeLong(row.id());
+                out.writeInt(row.min());
+                out.writeInt(row.max());
+                out.writeDouble(row.factor());
+            }
+            out.writeInt(vehicles.size());
+            for (var row : vehicles) {
+                out.writeLong(row.id());
+                writeString(out, row.name());
+                out.writeDouble(row.factor());
+            }
+            out.writeInt(regions.size());
+            for (var row : regions) {
+                out.writeLong(row.id());
+                writeString(out, row.name());
+                out.writeDouble(row.factor());
+            }
+            out.writeInt(cities.size());
+            for (var row : cities) {
+                out.writeLong(row.id());
+                writeString(out, row.name());
+                out.writeLong(row.regionId());
+            }
+            out.writeInt(postcodes.size());
+            for (var row : postcodes) {
+                out.writeLong(row.id());
+                writeString(out, row.value());
+                out.writeLong(row.cityId());
+                out.writeLong(row.regionId());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Liest eine Momentaufnahme aus einer Datei.                                                            *
+     *                                                                                                       *
+     * @param path Der Pfad der Datei.                                                                       *
+     * @return Die gelesene Momentaufnahme.                                                                  *
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder kein gültiges Format hat.           *
+     *********************************************************************************************************
+     */
+    public static ReferenceDataSnapshot read(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+                throw new IOException("Keine gültige Stammdaten-Momentaufnahme: " + path);
+            }
+            var version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Nicht unterstützte Version der Momentaufnahme: " + version);
+            }
+            var sourceChecksum = buffer.getLong();
+
+            var annoKilometers = new ArrayList<AnnoKilometersRow>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                annoKilometers.add(new AnnoKilometersRow(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getDouble()));
+            }
+            var vehicles = new ArrayList<VehicleRow>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                vehicles.add(new VehicleRow(buffer.getLong(), readString(buffer), buffer.getDouble()));
+            }
+            var regions = new ArrayList<RegionRow>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                regions.add(new RegionRow(buffer.getLong(), readString(buffer), buffer.getDouble()));
+            }
+            var cities = new ArrayList<CityRow>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                cities.add(new CityRow(buffer.getLong(), readString(buffer), buffer.getLong()));
+            }
+            var postcodes = new ArrayList<PostcodeRow>();
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                postcodes.add(new PostcodeRow(buffer.getLong(), readString(buffer), buffer.getLong(), buffer.getLong()));
+            }
+            return new ReferenceDataSnapshot(sourceChecksum, List.copyOf(annoKilometers), List.copyOf(vehicles),
+                    List.copyOf(regions), List.copyOf(cities), List.copyOf(postcodes));
+        } catch (RuntimeException e) {
+            throw new IOException("Beschädigte Stammdaten-Momentaufnahme: " + path, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import java.util.zip.CRC32;
+
+/**
+ *************************************************************************************************************
+ * Fertig serialisierte JSON-Antwort samt ETag, die ohne erneute Serialisierung ausgeliefert wird.           *
+ *                                                                                                           *
+ * @param body Die UTF-8-kodierte JSON-Antwort.                                                              *
+ * @param etag Der aus dem Inhalt berechnete ETag (ohne Anführungszeichen).                                  *
+ *************************************************************************************************************
+ */
+public record SerializedResponse(byte[] body, String etag) {
+
+    /**
+     *********************************************************************************************************
+     * Übernimmt die serialisierte Antwort und berechnet den zugehörigen ETag.                               *
+     *                                                                                                       *
+     * @param body Die UTF-8-kodierte JSON-Antwort.                                                          *
+     * @return Die Antwort mit ETag.                                                                         *
+     *********************************************************************************************************
+     */
+    public static SerializedResponse of(byte[] body) {
+        var crc = new CRC32();
+        crc.update(body);
+        return new SerializedResponse(body, Long.toHexString(crc.getValue()) + "-" + body.length);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ *************************************************************************************************************
+ * Vorgerenderte option-Elemente für die Fahrzeugauswahl der Startseite.                                     *
+ * Die Liste wird einmal ohne Auswahl und je Fahrzeug mit dem ausgewählten Eintrag erzeugt, sodass beim      *
+ * Rendern der Seite nur noch die passende Zeichenkette eingesetzt wird.                                     *
+ *************************************************************************************************************
+ */
+public final class VehicleOptionFragments {
+
+    private final String unselected;
+    private final Map<Long, String> selected;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor, der alle Varianten der Fahrzeugauswahl erzeugt.                                          *
+     *                                                                                                       *
+     * @param vehicles Die Fahrzeuge in der anzuzeigenden Reihenfolge.                                       *
+     *********************************************************************************************************
+     */
+    public VehicleOptionFragments(List<Vehicle> vehicles) {
+        var options = new String[vehicles.size()];
+        for (int i = 0; i < options.length; i++) {
+            var vehicle = vehicles.get(i);
+            options[i] = "<option value=\"" + vehicle.getId() + "\">" + HtmlUtils.htmlEscape(vehicle.getName()) + "</option>";
+        }
+        this.unselected = String.join("", options);
+
+        var variants = new HashMap<Long, String>();
+        for (int i = 0; i < options.length; i++) {
+            if (vehicles.get(i).getId() == null) {
+                continue;
+            }
+            var original = options[i];
+            options[i] = original.replace("\">", "\" selected=\"selected\">");
+            variants.put(vehicles.get(i).getId(), String.join("", options));
+            options[i] = original;
+        }
+        this.selected = Map.copyOf(variants);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Liefert die option-Elemente mit dem angegebenen Fahrzeug als Auswahl.                                 *
+     *                                                                                                       *
+     * @param vehicleId Die ID des ausgewählten Fahrzeugs oder null, wenn keines ausgewählt ist.             *
+     * @return Die vorgerenderten option-Elemente.                                                           *
+     *********************************************************************************************************
+     */
+    public String render(Long vehicleId) {
+        return vehicleId == null ? unselected : selected.getOrDefault(vehicleId, unselected);
+    }
+}
@@ -5,12 +5,20 @@ import com.sina_reidenbach.insurancePremium.service.*;
 import com.sina_reidenbach.insurancePremium.utils.IpUtils;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 /**
@@ -24,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
 public class FrontendController {
 
     private static final Logger logger = LoggerFactory.getLogger(FrontendController.class);
+    private static final MediaType HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
 
     @Autowired
     private ErrorHandlingService errorHandlingService;
@@ -36,6 +45,9 @@ public class FrontendController {
     @Autowired
     private CalculateService calculateService;
 
+    @Value("${insurance.postcodes.cache-max-age:3600}")
+    private long postcodeOptionsMaxAge = 3600;
+
     /**
      ***************************************************************************************************************
      * Zeigt die Startseite an und fügt Standardattribute zum Model hinzu.                                         *
@@ -54,21 +66,41 @@ public class FrontendController {
     /**
      ***************************************************************************************************************
      * Filtert Postleitzahlen basierend auf Benutzereingaben und liefert passende Optionen.                        *
+     * Die Optionen werden als vorkodierte Bytes mit ETag und Cache-Control-Header ausgeliefert. Stimmt der        *
+     * ETag der Anfrage überein, wird 304 (Not Modified) ohne Inhalt zurückgegeben.                                *
      *                                                                                                             *
      * @param input Die Postleitzahl, nach der gefiltert werden soll.                                              *
-     * @return Eine JSON-Antwort mit den gefilterten Postleitzahlen-Optionen.                                      *
+     * @param webRequest Die aktuelle Anfrage zur Auswertung des If-None-Match-Headers.                            *
+     * @return Eine HTML-Antwort mit den gefilterten Postleitzahlen-Optionen.                                      *
      ***************************************************************************************************************
      */
     @GetMapping("/filter-postcodes")
     @ResponseBody
-    public String filterPostcodes(@RequestParam String input) {
-        return entityService.generatePostcodeOptions(input);
+    public ResponseEntity<byte[]> filterPostcodes(@RequestParam String input, WebRequest webRequest) {
+        var options = entityService.getPostcodeOptions(input);
+        if (webRequest.checkNotModified(options.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(options.etag())
+                    .cacheControl(postcodeOptionsCacheControl())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(HTML_UTF8)
+                .eTag(options.etag())
+                .cacheControl(postcodeOptionsCacheControl())
+                .body(options.body());
+    }
+
+    private CacheControl postcodeOptionsCacheControl() {
+        return CacheControl.maxAge(postcodeOptionsMaxAge, TimeUnit.SECONDS).cachePublic();
     }
 
     /**
      * **************************************************************************************************************
      * Berechnet die Versicherungsprämie basierend auf Benutzereingaben.                                            *
      * Fügt Ergebnisse und Fahrzeugliste dem Model hinzu und behandelt mögliche Eingabefehler.                      *
+     * Prüfung, Berechnung, Regionsname und Statistik-Eintrag beruhen auf einer einzigen Auflösung der Eingaben.    *
+     * Fahrzeug- und Postleitzahlenliste stammen aus dem zwischengespeicherten Sichtmodell der Startseite.          *
      *                                                                                                              *
      * @param km Die Anzahl der Kilometer, die das Fahrzeug jährlich fährt.                                         *
      * @param postcodeValue Die Postleitzahl des Benutzers.                                                         *
@@ -85,17 +117,15 @@ public class FrontendController {
                             HttpServletRequest request,
                             Model model) {
         try {
-            if (!entityService.isPostcodeValid(postcodeValue)) {
-                throw new IllegalArgumentException("Ungültige Postleitzahl");
-            }
-
-            var premium = calculateService.calculateAndSavePremiumWithStatistics(km, postcodeValue, vehicleId, IpUtils.getClientIp(request));
+            var quote = calculateService.quoteAndSaveStatistics(km, postcodeValue, vehicleId, IpUtils.getClientIp(request));
 
-            var region = entityService.getRegionNameByPostcode(postcodeValue);
-            this.premiumResult = new PremiumResult(premium, region);
+            var region = quote.context().regionName();
+            this.premiumResult = new PremiumResult(quote.premium(), region != null ? region : "Unbekannt");
 
             entityService.addPremiumToModel(model, premiumResult);
-            model.addAttribute("vehicleList", entityService.getSortedVehicleList());
+            var homePage = entityService.getHomePageModel();
+            model.addAttribute("vehicleList", homePage.vehicleList());
+            model.addAttribute("vehicleOptions", homePage.vehicleOptions());
 
             return "index";
 
@@ -106,8 +136,7 @@ public class FrontendController {
             model.addAttribute("km", km);
             model.addAttribute("postcodeValue", postcodeValue);
             model.addAttribute("vehicleId", vehicleId);
-            model.addAttribute("vehicleList", entityService.getSortedVehicleList());
-            model.addAttribute("postcodeList", entityService.getSortedPostcodes());
+            entityService.addDefaultAttributes(model);
 
             return "index";
         } catch (Exception e) {
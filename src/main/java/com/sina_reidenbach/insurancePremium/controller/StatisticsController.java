@@ -0,0 +1,86 @@
+package com.sina_reidenbach.insurancePremium.controller;
+
+import com.sina_reidenbach.insurancePremium.dto.CacheStatistics;
+import com.sina_reidenbach.insurancePremium.dto.StatisticsBufferMetrics;
+import com.sina_reidenbach.insurancePremium.dto.StatisticsRollup;
+import com.sina_reidenbach.insurancePremium.service.CacheStatisticsService;
+import com.sina_reidenbach.insurancePremium.service.StatisticsRollupService;
+import com.sina_reidenbach.insurancePremium.service.StatisticsWriteBuffer;
+import io.swagger.v3.oas.annotations.Operation;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ *************************************************************************************************************
+ * Verantwortlich für die Bereitstellung von API-Endpunkten rund um die gespeicherten Statistiken.           *
+ *************************************************************************************************************
+ */
+@RestController
+public class StatisticsController {
+
+    @Autowired
+    private StatisticsWriteBuffer statisticsWriteBuffer;
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    /**
+     *********************************************************************************************************
+     * Liefert die Kennzahlen des Statistik-Puffers, z.B. Warteschlangentiefe und verworfene Einträge.       *
+     *                                                                                                       *
+     * @return Eine ResponseEntity mit den aktuellen Kennzahlen des Puffers.                                 *
+     *********************************************************************************************************
+     */
+    @Operation(tags = "Statistik", description = "Gibt die Kennzahlen des Statistik-Puffers aus")
+    @GetMapping("/api/statistics/buffer")
+    public ResponseEntity<StatisticsBufferMetrics> getBufferMetrics() {
+        return ResponseEntity.ok(statisticsWriteBuffer.getMetrics());
+    }
+
+    /**
+     *********************************************************************************************************
+     * Liefert die vorverdichteten Kennzahlen der Prämienberechnungen je Zeitraum, Region und Fahrzeug.      *
+     * Die Abfrage liest ausschließlich die Tabelle statistics_rollup und nie die Tabelle Statistics.        *
+     *                                                                                                       *
+     * @param granularity Die Auflösung (MINUTE, HOUR oder DAY), Standard HOUR.                              *
+     * @param from Beginn des Zeitraums (einschließlich), Standard 24 Zeiträume vor "to".                    *
+     * @param to Ende des Zeitraums (ausschließlich), Standard jetzt.                                        *
+     * @param region Optionaler Filter auf den Namen der Region.                                             *
+     * @param vehicle Optionaler Filter auf den Namen des Fahrzeugs.                                         *
+     * @return Eine ResponseEntity mit den Kennzahlen, sortiert nach Zeitraum, Region und Fahrzeug.          *
+     *********************************************************************************************************
+     */
+    @Operation(tags = "Statistik", description = "Gibt verdichtete Kennzahlen je Zeitraum, Region und Fahrzeug aus")
+    @GetMapping("/api/statistics/rollups")
+    public ResponseEntity<List<StatisticsRollup>> getRollups(
+            @RequestParam(defaultValue = "HOUR") StatisticsRollupService.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String vehicle) {
+        var end = to != null ? to : LocalDateTime.now();
+        var start = from != null ? from : granularity.truncate(end).minus(24, granularity.getUnit());
+        return ResponseEntity.ok(statisticsRollupService.query(granularity, start, end, region, vehicle));
+    }
+
+    /**
+     *********************************************************************************************************
+     * Liefert Treffer und Fehlzugriffe des Second-Level- und Query-Caches für die Stammdaten.               *
+     * Die Zähler sind nur gefüllt, wenn die Anwendung mit dem Profil cache gestartet wurde.                 *
+     *                                                                                                       *
+     * @return Eine ResponseEntity mit den Kennzahlen des Caches.                                            *
+     *********************************************************************************************************
+     */
+    @Operation(tags = "Statistik", description = "Gibt Treffer und Fehlzugriffe des Hibernate-Caches aus")
+    @GetMapping("/api/statistics/cache")
+    public ResponseEntity<CacheStatistics> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -1,21 +1,35 @@
 package com.sina_reidenbach.insurancePremium.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.cache.SerializedResponse;
 import com.sina_reidenbach.insurancePremium.dto.*;
 import com.sina_reidenbach.insurancePremium.service.CalculateService;
-import com.sina_reidenbach.insurancePremium.service.EntityService;
 import com.sina_reidenbach.insurancePremium.service.ErrorHandlingService;
+import com.sina_reidenbach.insurancePremium.service.OptionsResponseService;
+import com.sina_reidenbach.insurancePremium.service.PremiumStreamService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  ****************************************************************************************************************
@@ -35,53 +49,89 @@ public class ThirdPartyController {
     private ErrorHandlingService errorHandlingService;
 
     @Autowired
-    private EntityService entityService;
+    private OptionsResponseService optionsResponseService;
+
+    @Autowired
+    private PremiumStreamService premiumStreamService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${insurance.calculate.batch-max-items:50000}")
+    private int batchMaxItems = 50000;
 
     /**
      ****************************************************************************************************************
      * Liefert eine Liste der verfügbaren Fahrzeugtypen mit den zugehörigen Prämienfaktoren.                        *
      *                                                                                                              *
+     * @param webRequest Die aktuelle Anfrage zur Auswertung des If-None-Match-Headers.                             *
      * @return Eine ResponseEntity mit einer Liste der verfügbaren Fahrzeugtypen und den zugehörigen Prämienfaktoren*
      ****************************************************************************************************************
      */
     @Operation(tags = "Fahrzeugtypen", description = "Gibt mögliche Optionen für die Fahrzeugtypen aus und die entsprechenden Prämien Faktoren")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = VehicleResponse.class)))
     @GetMapping("/api/options/vehicles")
-    public ResponseEntity<VehicleResponse> getVehicles() {
-        return ResponseEntity.ok(entityService.getVehicles());
+    public ResponseEntity<byte[]> getVehicles(WebRequest webRequest) {
+        return serialized(optionsResponseService.getVehicles(), webRequest);
     }
 
     /**
      ****************************************************************************************************************
      * Gibt die verfügbaren Regionen für die Zulassungsstelle zurück.                                               *
      *                                                                                                              *
+     * @param webRequest Die aktuelle Anfrage zur Auswertung des If-None-Match-Headers.                             *
      * @return Eine ResponseEntity mit einer Liste der verfügbaren Regionen für die Zulassungsstelle.               *
      ****************************************************************************************************************
      */
     @Operation(tags = "Ansässigkeit Zulassungsstelle", description = "Gibt mögliche Optionen für die Regionen aus")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RegionResponse.class)))
     @GetMapping("/api/options/regions")
-    public ResponseEntity<RegionResponse> getRegions() {
-        return ResponseEntity.ok(entityService.getRegions());
+    public ResponseEntity<byte[]> getRegions(WebRequest webRequest) {
+        return serialized(optionsResponseService.getRegions(), webRequest);
     }
 
     /**
      ****************************************************************************************************************
      * Gibt eine Übersicht über verfügbare Kilometerbereiche und die entsprechenden Faktoren.                       *
      *                                                                                                              *
+     * @param webRequest Die aktuelle Anfrage zur Auswertung des If-None-Match-Headers.                             *
      * @return Eine ResponseEntity mit einer Liste der verfügbaren Kilometerbereiche und den zugehörigen Faktoren.  *
      ****************************************************************************************************************
      */
     @Operation(summary = "Gibt die Optionen für die Kilometer Ranges aus")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AnnoKilometersResponse.class)))
     @GetMapping("/api/options/annoKilometers")
-    public ResponseEntity<AnnoKilometersResponse> getAnnoKilometers() {
-        return ResponseEntity.ok(entityService.getAnnoKilometers());
+    public ResponseEntity<byte[]> getAnnoKilometers(WebRequest webRequest) {
+        return serialized(optionsResponseService.getAnnoKilometers(), webRequest);
+    }
+
+    /**
+     ****************************************************************************************************************
+     * Liefert die vorberechneten Prämien für alle Kombinationen aus Fahrzeug, Kilometerbereich und Region.         *
+     * Die Antwort wird einmal je Faktortabelle serialisiert und trägt einen ETag über den serialisierten Inhalt;   *
+     * stimmt der ETag der Anfrage überein, wird 304 (Not Modified) ohne Inhalt zurückgegeben.                      *
+     *                                                                                                              *
+     * @param webRequest Die aktuelle Anfrage zur Auswertung des If-None-Match-Headers.                             *
+     * @return Eine ResponseEntity mit allen Prämien oder 304, wenn sie sich nicht geändert haben.                  *
+     ****************************************************************************************************************
+     */
+    @Operation(tags = "Prämienberechnung", description = "Gibt die Prämien aller Kombinationen aus Fahrzeug, Kilometerbereich und Region aus")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PremiumMatrixResponse.class)))
+    @GetMapping("/api/premium-matrix")
+    public ResponseEntity<byte[]> getPremiumMatrix(WebRequest webRequest) {
+        return serialized(optionsResponseService.getPremiumMatrix(), webRequest);
     }
 
     /**
      ****************************************************************************************************************
      * Berechnet die Versicherungsprämie basierend auf Fahrzeug, Postleitzahl und Jahreskilometern.                 *
      * Validiert die Eingaben und behandelt Berechnungs- sowie Serverfehler.                                        *
+     * Prüfung und Berechnung erfolgen in einem Durchgang gegen die vorgeladene Faktortabelle.                      *
+     *                                                                                                              *
+     * Der Request-Body wird direkt an einen PremiumRequest gebunden und die Antwort als PremiumQuoteResponse       *
+     * geschrieben, ohne Maps für Anfrage oder Antwort aufzubauen.                                                  *
      *                                                                                                              *
-     * @param premiumRequest Ein Map-Objekt, das die Eingabedaten für die Berechnung der Prämie enthält.            *
+     * @param premiumRequest Die Eingabedaten für die Berechnung der Prämie.                                        *
      * @return Eine ResponseEntity mit der berechneten Prämie oder eine Fehlerantwort, bei ungültigen Eingaben.     *
      ****************************************************************************************************************
      */
@@ -102,7 +152,7 @@ public class ThirdPartyController {
                                                     value = "{\"vehicleTypeId\": 14, \"postcode\": \"51373\", \"annoKilometers\": 2000}"
                                             )
                                     },
-                                    schema = @Schema(implementation = PremiumResponse.class)
+                                    schema = @Schema(implementation = PremiumQuoteResponse.class)
                             )
                     ),
                     @ApiResponse(
@@ -148,19 +198,114 @@ public class ThirdPartyController {
             }
     )
     @PostMapping("/api/calculate")
-    public ResponseEntity<?> calculatePremium(@RequestBody Map<String, Object> premiumRequest) {
-        var errorMessages = calculateService.validatePremiumRequest(premiumRequest, calculateService);
-
-        if (!errorMessages.isEmpty()) {
-            return errorHandlingService.handleValidationErrors(errorMessages);
-        }
+    public ResponseEntity<?> calculatePremium(@RequestBody PremiumRequest premiumRequest) {
         try {
-            var response = calculateService.calculateAndBuildResponse(premiumRequest);
-            return ResponseEntity.ok(response);
+            var quote = calculateService.quote(premiumRequest);
+            if (!quote.isValid()) {
+                return errorHandlingService.handleValidationErrors(quote.errors());
+            }
+            return ResponseEntity.ok(PremiumQuoteResponse.of(quote.premium()));
 
         } catch (Exception e) {
             logger.error("Fehler bei der Prämienberechnung: {}", e.getMessage());
             return errorHandlingService.handleServerError(e);
         }
     }
+
+    /**
+     ****************************************************************************************************************
+     * Berechnet die Versicherungsprämien vieler Angebote mit einer Anfrage, z.B. für nächtliche Läufe zur          *
+     * Vertragsverlängerung.                                                                                        *
+     * Alle Einträge werden in einem Durchgang gegen die vorgeladene Faktortabelle berechnet; ungültige Einträge    *
+     * liefern ihre Fehlermeldungen, ohne die übrigen Einträge zu beeinflussen.                                     *
+     * Das JSON-Array wird Eintrag für Eintrag gelesen; sobald es mehr als insurance.calculate.batch-max-items      *
+     * Einträge enthält, wird das Lesen abgebrochen, ohne den Rest der Anfrage zu binden.                           *
+     *                                                                                                              *
+     * @param request Die Anfrage mit einem JSON-Array aus Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl.   *
+     * @return Eine ResponseEntity mit den Ergebnissen aller Einträge oder eine Fehlerantwort, wenn die Anfrage     *
+     *         kein gültiges Array ist oder mehr als insurance.calculate.batch-max-items Einträge enthält.          *
+     * @throws IOException Wenn die Anfrage nicht gelesen werden kann.                                              *
+     ****************************************************************************************************************
+     */
+    @Operation(
+            summary = "Berechnet die Prämien mehrerer Angebote",
+            tags = "Prämienberechnung",
+            description = "Berechnet die Prämien für eine Liste aus vehicleId, annoKilometers und postcode und liefert je Eintrag Prämie oder Fehler"
+    )
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = PremiumBatchItem.class))))
+    @PostMapping(value = "/api/calculate/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> calculatePremiumBatch(HttpServletRequest request) throws IOException {
+        List<PremiumBatchItem> items;
+        try {
+            items = readBatchItems(request.getInputStream());
+        } catch (JsonProcessingException e) {
+            return errorHandlingService.handleValidationErrors(List.of("Die Anfrage enthält kein gültiges JSON."));
+        } catch (IllegalArgumentException e) {
+            return errorHandlingService.handleValidationErrors(List.of(e.getMessage()));
+        }
+        try {
+            return ResponseEntity.ok(calculateService.calculateBatch(items));
+        } catch (Exception e) {
+            logger.error("Fehler bei der Sammelberechnung: {}", e.getMessage());
+            return errorHandlingService.handleServerError(e);
+        }
+    }
+
+    private List<PremiumBatchItem> readBatchItems(InputStream input) throws IOException {
+        try (var parser = objectMapper.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Erwartet wird ein JSON-Array mit Angeboten.");
+            }
+            var items = new ArrayList<PremiumBatchItem>();
+            for (var token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Erwartet wird ein JSON-Array mit Angeboten.");
+                }
+                if (items.size() >= batchMaxItems) {
+                    throw new IllegalArgumentException("Es dürfen höchstens " + batchMaxItems + " Einträge übergeben werden.");
+                }
+                items.add(objectMapper.readValue(parser, PremiumBatchItem.class));
+            }
+            return items;
+        }
+    }
+
+    /**
+     ****************************************************************************************************************
+     * Berechnet die Versicherungsprämien einer beliebig großen Angebotsdatei und streamt die Ergebnisse            *
+     * zeilenweise zurück. Erwartet NDJSON (ein Objekt mit vehicleId, annoKilometers und postcode je Zeile)         *
+     * oder CSV mit denselben Spalten. Jede Ergebniszeile wird geschrieben, sobald sie berechnet ist; die           *
+     * letzte Zeile enthält die Zusammenfassung mit Durchsatz und Anzahl der abgewiesenen Zeilen.                   *
+     *                                                                                                              *
+     * @param request Die Anfrage, deren Inhalt zeilenweise gelesen wird.                                           *
+     * @param response Die Antwort, in die die Ergebnisse als NDJSON geschrieben werden.                            *
+     * @throws IOException Wenn Ein- oder Ausgabe fehlschlagen.                                                     *
+     ****************************************************************************************************************
+     */
+    @Operation(
+            summary = "Berechnet die Prämien einer Angebotsdatei als Stream",
+            tags = "Prämienberechnung",
+            description = "Liest NDJSON oder CSV zeilenweise und liefert je Zeile Prämie oder Fehler als NDJSON, gefolgt von einer Zusammenfassung"
+    )
+    @PostMapping(value = "/api/calculate/stream", consumes = {"application/x-ndjson", "text/csv"}, produces = "application/x-ndjson")
+    public void calculatePremiumStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        var csv = request.getContentType() != null && request.getContentType().startsWith("text/csv");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        premiumStreamService.calculate(request.getInputStream(), csv, response.getOutputStream());
+    }
+
+    /**
+     ****************************************************************************************************************
+     * Liefert eine vorab serialisierte Antwort mit ihrem ETag aus. Stimmt der ETag der Anfrage überein, wird 304   *
+     * (Not Modified) ohne Inhalt zurückgegeben.                                                                    *
+     ****************************************************************************************************************
+     */
+    private static ResponseEntity<byte[]> serialized(SerializedResponse response, WebRequest webRequest) {
+        if (webRequest.checkNotModified(response.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.etag()).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(response.etag()).body(response.body());
+    }
 }
@@ -0,0 +1,50 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für die Kennzahlen des Second-Level- und Query-Caches von         *
+ * Hibernate. Die Zähler laufen seit dem Start der Anwendung und sind nur im Profil cache gefüllt.           *
+ *************************************************************************************************************
+ */
+@Getter
+public class CacheStatistics {
+
+    private final boolean enabled;
+    private final long secondLevelCacheHits;
+    private final long secondLevelCacheMisses;
+    private final long secondLevelCachePuts;
+    private final long queryCacheHits;
+    private final long queryCacheMisses;
+    private final long queryCachePuts;
+    private final Map<String, Map<String, Long>> regions;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param enabled True, wenn Hibernate Statistiken erhebt.                                               *
+     * @param secondLevelCacheHits Anzahl der Treffer im Second-Level-Cache.                                 *
+     * @param secondLevelCacheMisses Anzahl der Fehlzugriffe im Second-Level-Cache.                          *
+     * @param secondLevelCachePuts Anzahl der im Second-Level-Cache abgelegten Einträge.                     *
+     * @param queryCacheHits Anzahl der Treffer im Query-Cache.                                              *
+     * @param queryCacheMisses Anzahl der Fehlzugriffe im Query-Cache.                                       *
+     * @param queryCachePuts Anzahl der im Query-Cache abgelegten Ergebnisse.                                *
+     * @param regions Treffer, Fehlzugriffe und abgelegte Einträge je Cache-Region.                          *
+     *********************************************************************************************************
+     */
+    public CacheStatistics(boolean enabled, long secondLevelCacheHits, long secondLevelCacheMisses,
+                           long secondLevelCachePuts, long queryCacheHits, long queryCacheMisses,
+                           long queryCachePuts, Map<String, Map<String, Long>> regions) {
+        this.enabled = enabled;
+        this.secondLevelCacheHits = secondLevelCacheHits;
+        this.secondLevelCacheMisses = secondLevelCacheMisses;
+        this.secondLevelCachePuts = secondLevelCachePuts;
+        this.queryCacheHits = queryCacheHits;
+        this.queryCacheMisses = queryCacheMisses;
+        this.queryCachePuts = queryCachePuts;
+        this.regions = regions;
+    }
+}
@@ -0,0 +1,36 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import com.sina_reidenbach.insurancePremium.cache.VehicleOptionFragments;
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import java.util.List;
+
+/**
+ *************************************************************************************************************
+ * Unveränderliches Sichtmodell der Startseite mit den bereits sortierten Auswahllisten.                     *
+ * Wird einmal pro Faktortabelle aufgebaut und von allen Seitenaufrufen gemeinsam genutzt.                   *
+ *                                                                                                           *
+ * @param vehicleList Die Fahrzeuge, sortiert nach ihrem Namen.                                              *
+ * @param postcodeList Die Postleitzahlen, aufsteigend sortiert; leer, wenn sie nachgeladen werden.          *
+ * @param vehicleOptions Die vorgerenderten option-Elemente der Fahrzeugauswahl.                             *
+ *************************************************************************************************************
+ */
+public record HomePageModel(List<Vehicle> vehicleList, List<String> postcodeList,
+                            VehicleOptionFragments vehicleOptions) {
+
+    public HomePageModel {
+        vehicleList = List.copyOf(vehicleList);
+        postcodeList = List.copyOf(postcodeList);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Erzeugt das Sichtmodell und rendert die Fahrzeugauswahl einmalig vor.                                 *
+     *                                                                                                       *
+     * @param vehicleList Die Fahrzeuge, sortiert nach ihrem Namen.                                          *
+     * @param postcodeList Die Postleitzahlen, aufsteigend sortiert.                                         *
+     *********************************************************************************************************
+     */
+    public HomePageModel(List<Vehicle> vehicleList, List<String> postcodeList) {
+        this(vehicleList, postcodeList, new VehicleOptionFragments(vehicleList));
+    }
+}
@@ -0,0 +1,36 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für einen Eintrag einer Sammelberechnung.                         *
+ * Enthält Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl eines Angebots.                             *
+ *************************************************************************************************************
+ */
+@Getter
+@Setter
+public class PremiumBatchItem {
+
+    private Long vehicleId;
+    private Integer annoKilometers;
+    private String postcode;
+
+    public PremiumBatchItem() {}
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param vehicleId Die ID des Fahrzeugs.                                                                *
+     * @param annoKilometers Die Jahreskilometerleistung.                                                    *
+     * @param postcode Die Postleitzahl.                                                                     *
+     *********************************************************************************************************
+     */
+    public PremiumBatchItem(Long vehicleId, Integer annoKilometers, String postcode) {
+        this.vehicleId = vehicleId;
+        this.annoKilometers = annoKilometers;
+        this.postcode = postcode;
+    }
+}
@@ -0,0 +1,31 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import java.util.List;
+import lombok.Getter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für die Antwort einer Sammelberechnung.                           *
+ * Enthält die Ergebnisse aller Einträge in der Reihenfolge der Anfrage sowie die Anzahl der Fehler.         *
+ *************************************************************************************************************
+ */
+@Getter
+public class PremiumBatchResponse {
+
+    private final int count;
+    private final int errorCount;
+    private final List<PremiumBatchResult> results;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param results Die Ergebnisse aller Einträge.                                                         *
+     *********************************************************************************************************
+     */
+    public PremiumBatchResponse(List<PremiumBatchResult> results) {
+        this.count = results.size();
+        this.errorCount = (int) results.stream().filter(result -> !result.getErrors().isEmpty()).count();
+        this.results = results;
+    }
+}
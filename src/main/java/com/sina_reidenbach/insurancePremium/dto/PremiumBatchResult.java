@@ -0,0 +1,33 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import java.util.List;
+import lombok.Getter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für das Ergebnis eines Eintrags einer Sammelberechnung.           *
+ * Enthält entweder die berechnete Prämie oder die Fehlermeldungen des Eintrags.                             *
+ *************************************************************************************************************
+ */
+@Getter
+public class PremiumBatchResult {
+
+    private final int index;
+    private final Double premium;
+    private final List<String> errors;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param index Die Position des Eintrags in der Anfrage.                                                *
+     * @param premium Die berechnete Prämie oder null bei Fehlern.                                           *
+     * @param errors Die Fehlermeldungen (leer, wenn die Berechnung erfolgreich war).                        *
+     *********************************************************************************************************
+     */
+    public PremiumBatchResult(int index, Double premium, List<String> errors) {
+        this.index = index;
+        this.premium = premium;
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import com.sina_reidenbach.insurancePremium.cache.PremiumMatrix;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für alle vorberechneten Prämien.                                  *
+ * premiums[v][k][r] ist die Prämie für vehicles[v], kmBands[k] und regions[r]; Partner können die           *
+ * Tabelle zwischenspeichern und Prämien selbst nachschlagen.                                                *
+ *                                                                                                           *
+ * @param basis Der Basiswert der Prämie.                                                                    *
+ * @param vehicles Die Fahrzeuge in der Reihenfolge der ersten Dimension.                                    *
+ * @param kmBands Die Kilometerbereiche in der Reihenfolge der zweiten Dimension.                            *
+ * @param regions Die Namen der Regionen in der Reihenfolge der dritten Dimension.                           *
+ * @param premiums Die Prämien.                                                                              *
+ *************************************************************************************************************
+ */
+public record PremiumMatrixResponse(int basis, List<VehicleEntry> vehicles, List<KmBandEntry> kmBands,
+                                    List<String> regions, double[][][] premiums) {
+
+    public record VehicleEntry(long id, String name) {
+    }
+
+    public record KmBandEntry(int min, int max) {
+    }
+
+    /**
+     *********************************************************************************************************
+     * Erstellt die Antwort aus den vorberechneten Prämien.                                                  *
+     *                                                                                                       *
+     * @param matrix Die vorberechneten Prämien.                                                             *
+     * @return Die Antwort mit allen bekannten Fahrzeugen, Kilometerbereichen und Regionen.                  *
+     *********************************************************************************************************
+     */
+    public static PremiumMatrixResponse of(PremiumMatrix matrix) {
+        var table = matrix.getTable();
+        var vehicles = new ArrayList<VehicleEntry>();
+        for (int id = 0; id < table.getVehicleSlots(); id++) {
+            if (!Double.isNaN(table.vehicleFactor(id))) {
+                vehicles.add(new VehicleEntry(id, table.vehicleName(id)));
+            }
+        }
+        var kmBands = new ArrayList<KmBandEntry>(table.getKmBandCount());
+        for (int band = 0; band < table.getKmBandCount(); band++) {
+            kmBands.add(new KmBandEntry(table.kmMin(band), table.kmMax(band)));
+        }
+        var regions = new ArrayList<String>(table.getRegionCount());
+        for (int region = 0; region < table.getRegionCount(); region++) {
+            regions.add(table.regionNameAt(region));
+        }
+
+        var premiums = new double[vehicles.size()][kmBands.size()][regions.size()];
+        for (int v = 0; v < vehicles.size(); v++) {
+            for (int band = 0; band < kmBands.size(); band++) {
+                for (int region = 0; region < regions.size(); region++) {
+                    premiums[v][band][region] = matrix.premium(vehicles.get(v).id(), band, region);
+                }
+            }
+        }
+        return new PremiumMatrixResponse(matrix.getBasis(), vehicles, kmBands, regions, premiums);
+    }
+}
@@ -0,0 +1,29 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import com.sina_reidenbach.insurancePremium.cache.QuoteContext;
+import java.util.List;
+
+/**
+ *************************************************************************************************************
+ * Ergebnis einer Prämienberechnung, bei der Fahrzeug, Kilometerbereich und Region genau einmal              *
+ * aufgelöst werden. Enthält entweder die berechnete Prämie oder die Fehlermeldungen der Eingaben.           *
+ *                                                                                                           *
+ * @param premium Die berechnete Prämie oder null bei Fehlern.                                               *
+ * @param context Die aufgelösten Stammdaten des Angebots oder null bei Fehlern.                             *
+ * @param errors Die Fehlermeldungen (leer, wenn die Berechnung erfolgreich war).                            *
+ *************************************************************************************************************
+ */
+public record PremiumQuote(Double premium, QuoteContext context, List<String> errors) {
+
+    public static PremiumQuote priced(double premium, QuoteContext context) {
+        return new PremiumQuote(premium, context, List.of());
+    }
+
+    public static PremiumQuote rejected(List<String> errors) {
+        return new PremiumQuote(null, null, errors);
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+}
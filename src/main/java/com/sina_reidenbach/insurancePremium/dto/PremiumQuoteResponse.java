@@ -0,0 +1,35 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+/**
+ *************************************************************************************************************
+ * Dient als typisiertes Datenübertragungsobjekt (DTO) für das Ergebnis einer Prämienberechnung.             *
+ * Das JSON-Format entspricht dem der {@link PremiumResponse} ({"premium": {"premium": 562.5}}),             *
+ * die Prämie wird aber ohne Map und ohne Boxing abgelegt.                                                   *
+ *                                                                                                           *
+ * @param premium Die berechnete Prämie.                                                                     *
+ *************************************************************************************************************
+ */
+public record PremiumQuoteResponse(PremiumAmount premium) {
+
+    /**
+     *********************************************************************************************************
+     * Die berechnete Prämie.                                                                                *
+     *                                                                                                       *
+     * @param premium Der Prämienbetrag.                                                                     *
+     *********************************************************************************************************
+     */
+    public record PremiumAmount(double premium) {
+    }
+
+    /**
+     *********************************************************************************************************
+     * Erstellt die Antwort für einen Prämienbetrag.                                                         *
+     *                                                                                                       *
+     * @param premium Der Prämienbetrag.                                                                     *
+     * @return Die Antwort.                                                                                  *
+     *********************************************************************************************************
+     */
+    public static PremiumQuoteResponse of(double premium) {
+        return new PremiumQuoteResponse(new PremiumAmount(premium));
+    }
+}
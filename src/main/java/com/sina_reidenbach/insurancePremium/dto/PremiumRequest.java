@@ -0,0 +1,32 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import java.util.Map;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für eine Anfrage zur Prämienberechnung.                           *
+ * Jackson bindet den Request-Body direkt an die Felder dieses Records, ohne eine Map aufzubauen.            *
+ *                                                                                                           *
+ * @param vehicleId Die ID des Fahrzeugs.                                                                    *
+ * @param annoKilometers Die Jahreskilometerleistung.                                                        *
+ * @param postcode Die Postleitzahl.                                                                         *
+ *************************************************************************************************************
+ */
+public record PremiumRequest(Long vehicleId, Integer annoKilometers, String postcode) {
+
+    /**
+     *********************************************************************************************************
+     * Erstellt eine Anfrage aus einer Map mit den Schlüsseln "vehicleId", "annoKilometers" und "postcode".  *
+     *                                                                                                       *
+     * @param premiumRequest Die Map mit den Eingabeparametern.                                              *
+     * @return Die typisierte Anfrage.                                                                       *
+     *********************************************************************************************************
+     */
+    public static PremiumRequest of(Map<String, Object> premiumRequest) {
+        var vehicleId = (Number) premiumRequest.get("vehicleId");
+        var annoKilometers = (Number) premiumRequest.get("annoKilometers");
+        return new PremiumRequest(vehicleId != null ? vehicleId.longValue() : null,
+                annoKilometers != null ? annoKilometers.intValue() : null,
+                (String) premiumRequest.get("postcode"));
+    }
+}
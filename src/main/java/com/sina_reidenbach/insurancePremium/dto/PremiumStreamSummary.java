@@ -0,0 +1,37 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import lombok.Getter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für die Zusammenfassung am Ende einer Stream-Berechnung.          *
+ * Enthält die Anzahl der gelesenen, berechneten und abgewiesenen Zeilen sowie den Durchsatz.                *
+ *************************************************************************************************************
+ */
+@Getter
+public class PremiumStreamSummary {
+
+    private final long lines;
+    private final long priced;
+    private final long rejected;
+    private final long durationMs;
+    private final long linesPerSecond;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param lines Anzahl der gelesenen Zeilen ohne Leer- und Kopfzeilen.                                   *
+     * @param priced Anzahl der berechneten Zeilen.                                                          *
+     * @param rejected Anzahl der abgewiesenen Zeilen.                                                       *
+     * @param durationNanos Dauer der Berechnung in Nanosekunden.                                            *
+     *********************************************************************************************************
+     */
+    public PremiumStreamSummary(long lines, long priced, long rejected, long durationNanos) {
+        this.lines = lines;
+        this.priced = priced;
+        this.rejected = rejected;
+        this.durationMs = durationNanos / 1_000_000;
+        this.linesPerSecond = durationNanos > 0 ? lines * 1_000_000_000L / durationNanos : lines;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import lombok.Getter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für die Kennzahlen des Statistik-Puffers.                         *
+ * Enthält die aktuelle Warteschlangentiefe sowie Zähler für angenommene, verworfene, ausgelagerte,          *
+ * geschriebene, als Duplikat übersprungene und fehlgeschlagene Einträge seit dem Start der Anwendung.       *
+ *************************************************************************************************************
+ */
+@Getter
+public class StatisticsBufferMetrics {
+
+    private final int queueDepth;
+    private final int capacity;
+    private final String overflowPolicy;
+    private final long accepted;
+    private final long dropped;
+    private final long spilled;
+    private final long written;
+    private final long duplicates;
+    private final long failed;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param queueDepth Anzahl der Einträge, die aktuell auf das Schreiben warten.                          *
+     * @param capacity Maximale Anzahl an Einträgen in der Warteschlange.                                    *
+     * @param overflowPolicy Verhalten bei voller Warteschlange (DROP, BLOCK oder SPILL).                    *
+     * @param accepted Anzahl der angenommenen Einträge.                                                     *
+     * @param dropped Anzahl der verworfenen Einträge.                                                       *
+     * @param spilled Anzahl der in eine Datei ausgelagerten Einträge.                                       *
+     * @param written Anzahl der in die Datenbank geschriebenen Einträge.                                    *
+     * @param duplicates Anzahl der Einträge, die der Unique-Constraint als Duplikat abgewiesen hat.         *
+     * @param failed Anzahl der Einträge, deren Speicherung fehlgeschlagen ist.                              *
+     *********************************************************************************************************
+     */
+    public StatisticsBufferMetrics(int queueDepth, int capacity, String overflowPolicy, long accepted,
+                                   long dropped, long spilled, long written, long duplicates,
+                                   long failed) {
+        this.queueDepth = queueDepth;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.accepted = accepted;
+        this.dropped = dropped;
+        this.spilled = spilled;
+        this.written = written;
+        this.duplicates = duplicates;
+        this.failed = failed;
+    }
+}
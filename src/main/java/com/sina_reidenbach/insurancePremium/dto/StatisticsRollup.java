@@ -0,0 +1,57 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ *************************************************************************************************************
+ * Dient als Datenübertragungsobjekt (DTO) für einen vorverdichteten Statistik-Zeitraum.                     *
+ * Enthält für eine Kombination aus Zeitraum, Region und Fahrzeug die Anzahl der Berechnungen, Summe,        *
+ * Minimum, Maximum und Durchschnitt der Prämien sowie die Verteilung der Jahreskilometer.                   *
+ *************************************************************************************************************
+ */
+@Getter
+public class StatisticsRollup {
+
+    private final String granularity;
+    private final LocalDateTime bucketStart;
+    private final String region;
+    private final String vehicle;
+    private final long count;
+    private final double premiumSum;
+    private final double premiumMin;
+    private final double premiumMax;
+    private final double premiumAverage;
+    private final Map<String, Long> kmHistogram;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param granularity Die Auflösung des Zeitraums (MINUTE, HOUR oder DAY).                               *
+     * @param bucketStart Der Beginn des Zeitraums.                                                          *
+     * @param region Der Name der Region.                                                                    *
+     * @param vehicle Der Name des Fahrzeugs.                                                                *
+     * @param count Die Anzahl der Berechnungen.                                                             *
+     * @param premiumSum Die Summe der Prämien.                                                              *
+     * @param premiumMin Die kleinste Prämie.                                                                *
+     * @param premiumMax Die größte Prämie.                                                                  *
+     * @param kmHistogram Anzahl der Berechnungen je Kilometerbereich.                                       *
+     *********************************************************************************************************
+     */
+    public StatisticsRollup(String granularity, LocalDateTime bucketStart, String region, String vehicle,
+                            long count, double premiumSum, double premiumMin, double premiumMax,
+                            Map<String, Long> kmHistogram) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.region = region;
+        this.vehicle = vehicle;
+        this.count = count;
+        this.premiumSum = premiumSum;
+        this.premiumMin = premiumMin;
+        this.premiumMax = premiumMax;
+        this.premiumAverage = count == 0 ? 0 : premiumSum / count;
+        this.kmHistogram = kmHistogram;
+    }
+}
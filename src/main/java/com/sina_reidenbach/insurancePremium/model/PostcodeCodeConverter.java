@@ -0,0 +1,45 @@
+package com.sina_reidenbach.insurancePremium.model;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ *************************************************************************************************************
+ * Speichert eine fünfstellige Postleitzahl als Zahl statt als Zeichenkette.                                 *
+ * Führende Nullen gehen dabei nicht verloren, da beim Lesen wieder auf fünf Stellen aufgefüllt wird.        *
+ *************************************************************************************************************
+ */
+public class PostcodeCodeConverter implements AttributeConverter<String, Integer> {
+
+    /**
+     *********************************************************************************************************
+     * Wandelt die Postleitzahl in ihren Zahlenwert um.                                                      *
+     *                                                                                                       *
+     * @param postcode Die fünfstellige Postleitzahl oder null.                                              *
+     * @return Der Zahlenwert der Postleitzahl oder null.                                                    *
+     * @throws IllegalArgumentException Wenn die Postleitzahl nicht aus genau fünf Ziffern besteht.          *
+     *********************************************************************************************************
+     */
+    @Override
+    public Integer convertToDatabaseColumn(String postcode) {
+        if (postcode == null) {
+            return null;
+        }
+        if (!postcode.matches("\\d{5}")) {
+            throw new IllegalArgumentException("Ungültige Postleitzahl für die Statistik: " + postcode);
+        }
+        return Integer.parseInt(postcode);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Wandelt den gespeicherten Zahlenwert wieder in eine fünfstellige Postleitzahl um.                     *
+     *                                                                                                       *
+     * @param value Der gespeicherte Zahlenwert oder null.                                                   *
+     * @return Die fünfstellige Postleitzahl oder null.                                                      *
+     *********************************************************************************************************
+     */
+    @Override
+    public String convertToEntityAttribute(Integer value) {
+        return value == null ? null : String.format("%05d", value);
+    }
+}
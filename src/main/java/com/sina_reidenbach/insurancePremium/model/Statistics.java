@@ -10,11 +10,16 @@ import java.time.LocalDateTime;
  *************************************************************************************************************
  * Repräsentiert die Entität für eine Versicherungsstatistik.                                                *
  * Speichert Daten zu einer Berechnung, wie Datum, Postleitzahl, Fahrzeug, Kilometerstand und Prämie.        *
+ * Postleitzahl und Fahrzeug werden als kompakte Zahlen abgelegt; der Unique-Constraint auf Zeitpunkt,       *
+ * Postleitzahl und Fahrzeug dient zugleich als zusammengesetzter Index für Duplikat- und Zeitraumabfragen.  *
+ * Die Spalte vehicle_id verweist auf die Tabelle Vehicle, ist aber kein Fremdschlüssel, da partitionierte   *
+ * MySQL-Tabellen keine Fremdschlüssel unterstützen.                                                         *
  *************************************************************************************************************
  */
 @Getter
 @Setter
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_statistics_entry", columnNames = {"date_time", "postcode", "vehicle_id"}))
 public class Statistics {
 
     /**
@@ -27,8 +32,23 @@ public class Statistics {
     private Long id;
 
     private LocalDateTime dateTime;
+
+    /**
+     *********************************************************************************************************
+     * Die Postleitzahl. Wird als Zahl gespeichert, siehe {@link PostcodeCodeConverter}.                     *
+     *********************************************************************************************************
+     */
+    @Convert(converter = PostcodeCodeConverter.class)
     private String postcode;
-    private String vehicle;
+
+    /**
+     *********************************************************************************************************
+     * Die ID des Fahrzeugs aus der Tabelle Vehicle, für das die Prämie berechnet wurde.                     *
+     *********************************************************************************************************
+     */
+    @Column(name = "vehicle_id")
+    private Long vehicleId;
+
     private int annokilometers;
     private double premium;
     private String ipAddress;
@@ -42,16 +62,16 @@ public class Statistics {
      *                                                                                                       *
      * @param dateTime Das Datum und die Uhrzeit der Berechnung.                                             *
      * @param postcode Die Postleitzahl des Gebiets.                                                         *
-     * @param vehicle Das Fahrzeug, für das die Prämie berechnet wurde.                                      *
+     * @param vehicleId Die ID des Fahrzeugs, für das die Prämie berechnet wurde.                            *
      * @param annokilometers Der Kilometerstand des Fahrzeugs.                                               *
      * @param premium Die berechnete Versicherungsprämie.                                                    *
      * @param ipAddress Die IP-Adresse des Clients.                                                          *
      *********************************************************************************************************
      */
-    public Statistics(LocalDateTime dateTime, String postcode, String vehicle, int annokilometers, double premium, String ipAddress) {
+    public Statistics(LocalDateTime dateTime, String postcode, Long vehicleId, int annokilometers, double premium, String ipAddress) {
         this.dateTime = dateTime;
         this.postcode = postcode;
-        this.vehicle = vehicle;
+        this.vehicleId = vehicleId;
         this.annokilometers = annokilometers;
         this.premium = premium;
         this.ipAddress = ipAddress;
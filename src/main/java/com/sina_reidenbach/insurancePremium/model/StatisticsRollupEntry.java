@@ -0,0 +1,53 @@
+package com.sina_reidenbach.insurancePremium.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ *************************************************************************************************************
+ * Repräsentiert eine Zeile der vorverdichteten Statistik-Kennzahlen.                                        *
+ * Je Auflösung, Zeitraum, Region, Fahrzeug und Kilometerbereich werden Anzahl, Summe, Minimum und Maximum   *
+ * der Prämien gespeichert. Die Zeilen werden vom StatisticsRollupService per JDBC hochgezählt               *
+ * (INSERT ... ON DUPLICATE KEY UPDATE), sodass mehrere Instanzen dieselben Kennzahlen fortschreiben.        *
+ *************************************************************************************************************
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "statistics_rollup", uniqueConstraints = @UniqueConstraint(name = "uk_statistics_rollup",
+        columnNames = {"granularity", "bucket_start", "region", "vehicle", "km_bucket"}))
+public class StatisticsRollupEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = 100)
+    private String region;
+
+    @Column(nullable = false, length = 100)
+    private String vehicle;
+
+    /**
+     *********************************************************************************************************
+     * Der Index des Kilometerbereichs (siehe insurance.statistics.rollup.km-edges).                         *
+     *********************************************************************************************************
+     */
+    private int kmBucket;
+
+    @Column(name = "entry_count")
+    private long count;
+
+    private double premiumSum;
+    private double premiumMin;
+    private double premiumMax;
+}
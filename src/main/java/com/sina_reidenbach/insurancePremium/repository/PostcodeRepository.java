@@ -1,14 +1,19 @@
 package com.sina_reidenbach.insurancePremium.repository;
 
 import com.sina_reidenbach.insurancePremium.model.Postcode;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /**
  *************************************************************************************************************
  * Repository-Interface für den Zugriff auf {@link Postcode}-Entitäten.                                      *
  * Bietet Methoden zur Suche von Postleitzahlen anhand ihres Wertes oder des Anfangs eines Wertes.           *
+ * Im Profil cache werden die Ergebnisse der Suchmethoden im Query-Cache von Hibernate abgelegt.             *
  *************************************************************************************************************
  */
 public interface PostcodeRepository extends JpaRepository<Postcode, Long> {
@@ -21,6 +26,7 @@ public interface PostcodeRepository extends JpaRepository<Postcode, Long> {
      * @return Ein {@link Optional} mit der gefundenen Postcode-Entität oder leer, wenn keine gefunden wurde.*
      *********************************************************************************************************
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Postcode> findFirstByPostcodeValue(String postcodeValue);
 
     /**
@@ -31,6 +37,7 @@ public interface PostcodeRepository extends JpaRepository<Postcode, Long> {
      * @return Eine Liste von {@link Postcode}-Entitäten, die dem Kriterium entsprechen.                     *
      *********************************************************************************************************
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Postcode> findByPostcodeValueStartingWith(String postcodeValue);
 
     /**
@@ -41,5 +48,17 @@ public interface PostcodeRepository extends JpaRepository<Postcode, Long> {
      * @return {@code true}, wenn die Postleitzahl existiert, andernfalls {@code false}.                     *
      *********************************************************************************************************
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByPostcodeValue(String postcodeValue);
+
+    /**
+     *********************************************************************************************************
+     * Liefert für alle Postleitzahlen den Wert und die ID der Region ihrer Stadt, ohne Entitäten zu laden.  *
+     * Wird zum Aufbau der Faktortabelle für die Prämienberechnung verwendet.                                *
+     *                                                                                                       *
+     * @return Eine Liste von Paaren aus Postleitzahlwert (String) und Regions-ID (Long).                    *
+     *********************************************************************************************************
+     */
+    @Query("SELECT p.postcodeValue, c.region.id FROM Postcode p JOIN p.city c")
+    List<Object[]> findAllPostcodeRegionIds();
 }
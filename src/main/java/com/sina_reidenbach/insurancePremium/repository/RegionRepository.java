@@ -1,15 +1,19 @@
 package com.sina_reidenbach.insurancePremium.repository;
 
 import com.sina_reidenbach.insurancePremium.model.Region;
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 /**
  *************************************************************************************************************
  * Repository-Interface für den Zugriff auf {@link Region}-Entitäten.                                        *
  * Bietet Methoden zur Suche von Regionen anhand ihres Namens, einer Stadt oder einer Postleitzahl.          *
+ * Im Profil cache werden die Ergebnisse der Suchmethoden im Query-Cache von Hibernate abgelegt.             *
  *************************************************************************************************************
  */
 public interface RegionRepository extends JpaRepository<Region, Long> {
@@ -22,6 +26,7 @@ public interface RegionRepository extends JpaRepository<Region, Long> {
      * @return Ein {@link Optional} mit der gefundenen Region-Entität oder leer, wenn keine gefunden wurde.   *
      *********************************************************************************************************
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Region> findByName(String name);
 
     /**
@@ -32,6 +37,7 @@ public interface RegionRepository extends JpaRepository<Region, Long> {
      * @return Die gefundene {@link Region}-Entität oder {@code null}, wenn keine passende Region existiert. *
      *********************************************************************************************************
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Region findByCities_Name(String cityName);
 
     /**
@@ -47,5 +53,6 @@ public interface RegionRepository extends JpaRepository<Region, Long> {
             "JOIN r.cities c " +
             "JOIN c.postcodes p " +
             "WHERE p.postcodeValue LIKE :postcodeValue%")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Region> findByPostcodeValueStartingWith(@Param("postcodeValue") String postcodeValue);
 }
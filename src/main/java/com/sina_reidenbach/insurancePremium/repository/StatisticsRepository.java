@@ -15,15 +15,15 @@ public interface StatisticsRepository extends JpaRepository<Statistics, Long> {
 
     /**
      *********************************************************************************************************
-     * Findet eine {@link Statistics}-Entität anhand von Datum, Postleitzahl und Fahrzeugname.               *
+     * Findet eine {@link Statistics}-Entität anhand von Datum, Postleitzahl und Fahrzeug-ID.                *
      * Dient zum Abrufen bereits gespeicherter Berechnungsstatistiken mit den angegebenen Parametern.        *
      *                                                                                                       *
      * @param dateTime    Das Datum und die Uhrzeit der Berechnung.                                          *
      * @param postcode    Die Postleitzahl, die bei der Berechnung verwendet wurde.                          *
-     * @param vehicleName Der Name des Fahrzeugs, für das die Prämie berechnet wurde.                        *
+     * @param vehicleId   Die ID des Fahrzeugs, für das die Prämie berechnet wurde.                          *
      * @return Ein {@link Optional} mit der gefundenen {@link Statistics}-Entität oder leer, wenn keine       *
      *         übereinstimmenden Daten vorliegen.                                                             *
      *********************************************************************************************************
      */
-    Optional<Statistics> findByDateTimeAndPostcodeAndVehicle(LocalDateTime dateTime, String postcode, String vehicleName);
+    Optional<Statistics> findByDateTimeAndPostcodeAndVehicleId(LocalDateTime dateTime, String postcode, Long vehicleId);
 }
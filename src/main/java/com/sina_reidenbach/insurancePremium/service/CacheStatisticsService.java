@@ -0,0 +1,54 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.dto.CacheStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Liest die Treffer- und Fehlzugriffszähler des Second-Level- und Query-Caches aus den Statistiken von      *
+ * Hibernate. Im Profil cache sind die Stammdaten-Entitäten (Fahrzeug, Region, Kilometerbereich, Stadt,      *
+ * Postleitzahl) und die Suchabfragen von RegionRepository und PostcodeRepository im Cache abgelegt;         *
+ * ohne das Profil sind die Statistiken abgeschaltet und alle Zähler 0.                                      *
+ *************************************************************************************************************
+ */
+@Service
+public class CacheStatisticsService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     *********************************************************************************************************
+     * Gibt die aktuellen Kennzahlen des Caches zurück.                                                      *
+     *                                                                                                       *
+     * @return Die Gesamtzähler und die Zähler je Cache-Region.                                              *
+     *********************************************************************************************************
+     */
+    public CacheStatistics getStatistics() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var regions = new TreeMap<String, Map<String, Long>>();
+        if (statistics.isStatisticsEnabled()) {
+            for (var regionName : statistics.getSecondLevelCacheRegionNames()) {
+                var region = statistics.getCacheRegionStatistics(regionName);
+                if (region == null) {
+                    continue;
+                }
+                var counters = new LinkedHashMap<String, Long>();
+                counters.put("hits", region.getHitCount());
+                counters.put("misses", region.getMissCount());
+                counters.put("puts", region.getPutCount());
+                regions.put(regionName, counters);
+            }
+        }
+        return new CacheStatistics(statistics.isStatisticsEnabled(),
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(), statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), regions);
+    }
+}
@@ -1,7 +1,14 @@
 package com.sina_reidenbach.insurancePremium.service;
 
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.cache.PremiumMatrix;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchItem;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchResponse;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchResult;
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuote;
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuoteResponse;
+import com.sina_reidenbach.insurancePremium.dto.PremiumRequest;
 import com.sina_reidenbach.insurancePremium.dto.PremiumResponse;
-import com.sina_reidenbach.insurancePremium.repository.*;
 import java.time.LocalDateTime;
 import java.util.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,38 +36,14 @@ public class CalculateService {
     private static final Logger logger = LoggerFactory.getLogger(CalculateService.class);
     private ErrorHandlingService errorHandlingService;
     @Autowired
-    private VehicleRepository vehicleRepository;
-    @Autowired
-    PostcodeRepository postcodeRepository;
-    @Autowired
-    private EntityService entityService;
-    @Autowired
     private StatisticsService statisticsService;
     @Autowired
-    private AnnoKilometersRepository annoKilometersRepository;
-    @Autowired
-    private RegionRepository regionRepository;
+    private PremiumFactorService premiumFactorService;
 
     @Value("${insurance.premium.basis}")
     private int basis;
 
-    /**
-     *****************************************************************************************************************
-     * Konstruktor für den CalculateService.                                                                          *
-     *                                                                                                               *
-     * @param regionRepository Repository für Regionen                                                               *
-     * @param vehicleRepository Repository für Fahrzeuge                                                             *
-     * @param annoKilometersRepository Repository für Jahreskilometerbereiche                                       *
-     *****************************************************************************************************************
-     */
-    @Autowired
-    public CalculateService(RegionRepository regionRepository,
-                            VehicleRepository vehicleRepository,
-                            AnnoKilometersRepository annoKilometersRepository) {
-        this.regionRepository = regionRepository;
-        this.vehicleRepository = vehicleRepository;
-        this.annoKilometersRepository = annoKilometersRepository;
-    }
+    private volatile PremiumMatrix premiumMatrix;
 
     /**
      *****************************************************************************************************************
@@ -71,7 +54,7 @@ public class CalculateService {
      *****************************************************************************************************************
      */
     public double calculateRegionFactor(String postcode) {
-        return entityService.getRegionFactor(postcode);
+        return regionFactor(premiumFactorService.getTable(), postcode);
     }
 
     /**
@@ -83,7 +66,7 @@ public class CalculateService {
      *****************************************************************************************************************
      */
     public double calculateVehicleFactor(Long vehicleId) {
-        return entityService.getVehicleFactor(vehicleId);
+        return vehicleFactor(premiumFactorService.getTable(), vehicleId);
     }
 
     /**
@@ -97,14 +80,7 @@ public class CalculateService {
      *****************************************************************************************************************
      */
     public double calculateAnnoKilometersFactor(int kmMin, int kmMax) {
-        var annoKilometers = annoKilometersRepository.findByMinLessThanEqualAndMaxGreaterThanEqual(kmMin, kmMax);
-
-        if (!annoKilometers.isEmpty()) {
-            return annoKilometers.get(0).getFactor();
-        } else {
-            logger.error("Kein Kilometerbereich für {} - {} km gefunden", kmMin, kmMax);
-            throw new RuntimeException("Kein Kilometerbereich für " + kmMin + " - " + kmMax + " km gefunden.");
-        }
+        return annoKilometersFactor(premiumFactorService.getTable(), kmMin, kmMax);
     }
 
     /**
@@ -120,35 +96,26 @@ public class CalculateService {
      *****************************************************************************************************************
      */
     public List<String> validatePremiumRequest(Map<String, Object> premiumRequest, CalculateService calculateService) {
-        var errorMessages = new ArrayList<String>();
-
-        var vehicleIdNumber = (Number) premiumRequest.get("vehicleId");
-        var vehicleId = vehicleIdNumber != null ? vehicleIdNumber.longValue() : null;
-        var annoKilometers = (Integer) premiumRequest.get("annoKilometers");
-        var postcode = (String) premiumRequest.get("postcode");
-
-        if (vehicleId == null) errorMessages.add("vehicleId muss angegeben werden.");
-        if (annoKilometers == null) errorMessages.add("annoKilometers muss angegeben werden.");
-        if (postcode == null) errorMessages.add("postcode muss angegeben werden.");
-
-        if (vehicleId != null && vehicleRepository.findById(vehicleId).isEmpty()) {
-            errorMessages.add("Kein Fahrzeug mit der angegebenen ID gefunden.");
-        }
-
-        if (postcode != null && postcodeRepository.findFirstByPostcodeValue(postcode).isEmpty()) {
-            errorMessages.add("Kein Postleitzahl-Eintrag für den angegebenen Wert gefunden.");
-        }
-
-        if (annoKilometers != null && annoKilometers <= 0) {
-            errorMessages.add("Kilometerzahl muss größer als 0 sein.");
-        }
+        return validatePremiumRequest(PremiumRequest.of(premiumRequest));
+    }
 
-        return errorMessages;
+    /**
+     *****************************************************************************************************************
+     * Validiert eine typisierte Anfrage zur Prämienberechnung und sammelt mögliche Fehlermeldungen.                 *
+     * Die Prüfung erfolgt wie bei {@link #quote(PremiumRequest)} gegen die vorgeladene Faktortabelle.               *
+     *                                                                                                               *
+     * @param premiumRequest Die Anfrage mit Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl                   *
+     * @return Liste von Fehlermeldungen (leer, wenn keine Fehler vorliegen)                                         *
+     *****************************************************************************************************************
+     */
+    public List<String> validatePremiumRequest(PremiumRequest premiumRequest) {
+        return quote(premiumRequest).errors();
     }
 
     /**
      *****************************************************************************************************************
      * Berechnet die Versicherungsprämie basierend auf den angegebenen Parametern.                                   *
+     * Die Prämie wird wie bei {@link #quote(PremiumRequest)} aus den vorberechneten Prämien nachgeschlagen.         *
      *                                                                                                               *
      * @param vehicleId Die ID des Fahrzeugs                                                                         *
      * @param annoKilometers Jahreskilometerleistung                                                                 *
@@ -159,12 +126,16 @@ public class CalculateService {
      */
     public double calculatePremium(Long vehicleId, Integer annoKilometers, String postcode) {
         try {
-            var f1 = calculateAnnoKilometersFactor(annoKilometers, annoKilometers);
-            var f2 = calculateVehicleFactor(vehicleId);
-            var f3 = calculateRegionFactor(postcode);
+            var table = premiumFactorService.getTable();
+            var bandIndex = kmBand(table, annoKilometers, annoKilometers);
+            var regionIndex = regionIndex(table, postcode);
 
-            var premiumFactor = f1 * f2 * f3;
-            return premiumFactor * basis;
+            var premium = premiumMatrix(table).premium(vehicleId, bandIndex, regionIndex);
+            if (Double.isNaN(premium)) {
+                logger.error("Fahrzeug mit ID {} nicht gefunden.", vehicleId);
+                throw new RuntimeException("Fahrzeug mit ID " + vehicleId + " nicht gefunden.");
+            }
+            return premium;
         } catch (RuntimeException ex) {
             logger.error("Fehler bei der Berechnung der Prämie: {}", ex.getMessage());
             throw ex;
@@ -185,19 +156,33 @@ public class CalculateService {
      *****************************************************************************************************************
      */
     public double calculateAndSavePremiumWithStatistics(int annoKilometers, String postcodeValue, Long vehicleId, String ipAddress) {
-        var postcode = entityService.findPostcode(postcodeValue)
-                .orElseThrow(() -> new IllegalArgumentException("Ungültige Postleitzahl"));
-        var city = entityService.findCityByPostcode(postcodeValue)
-                .orElseThrow(() -> new IllegalArgumentException("Stadt nicht gefunden"));
-        var region = entityService.findRegionByCityName(city.getName())
-                .orElseThrow(() -> new IllegalArgumentException("Region nicht gefunden"));
-        var vehicle = entityService.findById(vehicleId)
-                .orElseThrow(() -> new IllegalArgumentException("Fahrzeug nicht gefunden"));
+        return quoteAndSaveStatistics(annoKilometers, postcodeValue, vehicleId, ipAddress).premium();
+    }
 
-        var premium = calculatePremium(vehicleId, annoKilometers, postcodeValue);
-        statisticsService.saveStatistics(LocalDateTime.now(), postcodeValue, vehicle.getName(), annoKilometers, premium, ipAddress);
+    /**
+     *****************************************************************************************************************
+     * Berechnet die Prämie und speichert die zugehörigen Statistikdaten.                                            *
+     * Postleitzahl, Region, Fahrzeug und Kilometerbereich werden einmal aus der vorgeladenen Faktortabelle          *
+     * aufgelöst; das Ergebnis enthält diese Daten, damit z.B. der Regionsname nicht erneut gesucht werden muss.     *
+     *                                                                                                               *
+     * @param annoKilometers Jahreskilometerleistung                                                                 *
+     * @param postcodeValue Postleitzahl                                                                             *
+     * @param vehicleId Fahrzeug-ID                                                                                  *
+     * @param ipAddress IP-Adresse des Anfragenden                                                                   *
+     * @return Die berechnete Prämie mit den aufgelösten Stammdaten                                                  *
+     * @throws IllegalArgumentException Wenn ungültige Eingaben übergeben werden                                     *
+     *****************************************************************************************************************
+     */
+    public PremiumQuote quoteAndSaveStatistics(int annoKilometers, String postcodeValue, Long vehicleId, String ipAddress) {
+        var quote = quote(premiumFactorService.getTable(), vehicleId, annoKilometers, postcodeValue);
+        if (!quote.isValid()) {
+            throw new IllegalArgumentException(String.join(" ", quote.errors()));
+        }
 
-        return premium;
+        statisticsService.saveStatistics(LocalDateTime.now(), postcodeValue, quote.context().vehicleId(),
+                annoKilometers, quote.premium(), ipAddress);
+
+        return quote;
     }
 
     /**
@@ -212,14 +197,173 @@ public class CalculateService {
      *****************************************************************************************************************
      */
     public PremiumResponse calculateAndBuildResponse(Map<String, Object> premiumRequest) {
-        var vehicleId = ((Number) premiumRequest.get("vehicleId")).longValue();
-        var annoKilometers = (Integer) premiumRequest.get("annoKilometers");
-        var postcode = (String) premiumRequest.get("postcode");
-
-        var premiumAmount = calculatePremium(vehicleId, annoKilometers, postcode);
+        var premiumAmount = calculateQuote(PremiumRequest.of(premiumRequest)).premium().premium();
 
         var response = new PremiumResponse();
         response.setPremium(Collections.singletonMap("premium", premiumAmount));
         return response;
     }
+
+    /**
+     *****************************************************************************************************************
+     * Berechnet die Prämie einer typisierten Anfrage, ohne Maps für Anfrage oder Antwort aufzubauen.                *
+     *                                                                                                               *
+     * @param premiumRequest Die Anfrage mit Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl                   *
+     * @return Die Antwort mit der berechneten Prämie                                                                *
+     *****************************************************************************************************************
+     */
+    public PremiumQuoteResponse calculateQuote(PremiumRequest premiumRequest) {
+        return PremiumQuoteResponse.of(calculatePremium(premiumRequest.vehicleId(), premiumRequest.annoKilometers(),
+                premiumRequest.postcode()));
+    }
+
+    /**
+     *****************************************************************************************************************
+     * Berechnet die Prämien vieler Angebote in einem Durchgang gegen die vorgeladene Faktortabelle.                 *
+     * Es werden keine Datenbankabfragen ausgeführt; ungültige Einträge erhalten ihre Fehlermeldungen, ohne die      *
+     * Berechnung der übrigen Einträge abzubrechen.                                                                  *
+     *                                                                                                               *
+     * @param items Die Angebote mit Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl                           *
+     * @return Die Ergebnisse in der Reihenfolge der Anfrage                                                         *
+     *****************************************************************************************************************
+     */
+    public PremiumBatchResponse calculateBatch(List<PremiumBatchItem> items) {
+        var table = premiumFactorService.getTable();
+        var results = new ArrayList<PremiumBatchResult>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(calculateItem(table, i, items.get(i)));
+        }
+        return new PremiumBatchResponse(results);
+    }
+
+    /**
+     *****************************************************************************************************************
+     * Berechnet die Prämie eines einzelnen Angebots gegen eine vorgeladene Faktortabelle.                           *
+     *                                                                                                               *
+     * @param table Die Faktortabelle, gegen die gerechnet wird                                                      *
+     * @param index Die Position des Angebots, die in das Ergebnis übernommen wird                                   *
+     * @param item Das Angebot mit Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl                             *
+     * @return Das Ergebnis mit Prämie oder Fehlermeldungen                                                          *
+     *****************************************************************************************************************
+     */
+    public PremiumBatchResult calculateItem(PremiumFactorTable table, int index, PremiumBatchItem item) {
+        if (item == null) {
+            return new PremiumBatchResult(index, null, List.of("Eintrag fehlt."));
+        }
+        var quote = quote(table, item.getVehicleId(), item.getAnnoKilometers(), item.getPostcode());
+        return new PremiumBatchResult(index, quote.premium(), quote.errors());
+    }
+
+    /**
+     *****************************************************************************************************************
+     * Prüft und berechnet eine Anfrage in einem Durchgang gegen die vorgeladene Faktortabelle.                      *
+     * Fahrzeug, Kilometerbereich und Region werden dabei genau einmal aufgelöst und sowohl für die Prüfung als      *
+     * auch für die Berechnung verwendet.                                                                            *
+     *                                                                                                               *
+     * @param premiumRequest Die Anfrage mit Fahrzeug-ID, Jahreskilometerleistung und Postleitzahl                   *
+     * @return Die berechnete Prämie oder die Fehlermeldungen der Eingaben                                           *
+     *****************************************************************************************************************
+     */
+    public PremiumQuote quote(PremiumRequest premiumRequest) {
+        return quote(premiumFactorService.getTable(), premiumRequest.vehicleId(), premiumRequest.annoKilometers(),
+                premiumRequest.postcode());
+    }
+
+    /**
+     *****************************************************************************************************************
+     * Prüft und berechnet eine Anfrage in einem Durchgang gegen eine vorgeladene Faktortabelle.                     *
+     * Die Prämie wird aus den vorberechneten Prämien ({@link #getPremiumMatrix()}) nachgeschlagen.                  *
+     *                                                                                                               *
+     * @param table Die Faktortabelle, gegen die gerechnet wird                                                      *
+     * @param vehicleId Die ID des Fahrzeugs                                                                         *
+     * @param annoKilometers Jahreskilometerleistung                                                                 *
+     * @param postcode Postleitzahl zur Ermittlung des Regionsfaktors                                                *
+     * @return Die berechnete Prämie oder die Fehlermeldungen der Eingaben                                           *
+     *****************************************************************************************************************
+     */
+    public PremiumQuote quote(PremiumFactorTable table, Long vehicleId, Integer annoKilometers, String postcode) {
+        var context = table.resolve(vehicleId, annoKilometers, postcode);
+        var errorMessages = new ArrayList<String>(0);
+
+        if (vehicleId == null) errorMessages.add("vehicleId muss angegeben werden.");
+        if (annoKilometers == null) errorMessages.add("annoKilometers muss angegeben werden.");
+        if (postcode == null) errorMessages.add("postcode muss angegeben werden.");
+
+        if (vehicleId != null && !context.hasVehicle()) {
+            errorMessages.add("Kein Fahrzeug mit der angegebenen ID gefunden.");
+        }
+
+        if (postcode != null && !context.hasRegion()) {
+            errorMessages.add("Kein Postleitzahl-Eintrag für den angegebenen Wert gefunden.");
+        }
+
+        if (annoKilometers != null && annoKilometers <= 0) {
+            errorMessages.add("Kilometerzahl muss größer als 0 sein.");
+        } else if (annoKilometers != null && !context.hasKmBand()) {
+            errorMessages.add("Kein Kilometerbereich für " + annoKilometers + " km gefunden.");
+        }
+
+        if (!errorMessages.isEmpty()) {
+            return PremiumQuote.rejected(errorMessages);
+        }
+        var premium = premiumMatrix(table).premium(vehicleId, context.kmBand(), context.regionIndex());
+        return PremiumQuote.priced(premium, context);
+    }
+
+    /**
+     *****************************************************************************************************************
+     * Gibt die vorberechneten Prämien für alle Kombinationen aus Fahrzeug, Kilometerbereich und Region zurück.      *
+     * Die Prämien werden neu berechnet, sobald die Faktortabelle neu geladen wurde oder sich der Basiswert          *
+     * geändert hat.                                                                                                 *
+     *                                                                                                               *
+     * @return Die vorberechneten Prämien zur aktuellen Faktortabelle                                                *
+     *****************************************************************************************************************
+     */
+    public PremiumMatrix getPremiumMatrix() {
+        return premiumMatrix(premiumFactorService.getTable());
+    }
+
+    private PremiumMatrix premiumMatrix(PremiumFactorTable table) {
+        var matrix = premiumMatrix;
+        if (matrix == null || !matrix.isFor(table, basis)) {
+            matrix = PremiumMatrix.of(table, basis);
+            premiumMatrix = matrix;
+        }
+        return matrix;
+    }
+
+    private double annoKilometersFactor(PremiumFactorTable table, int kmMin, int kmMax) {
+        return table.kmFactor(kmBand(table, kmMin, kmMax));
+    }
+
+    private int kmBand(PremiumFactorTable table, int kmMin, int kmMax) {
+        var bandIndex = table.findKmBand(kmMin, kmMax);
+        if (bandIndex < 0) {
+            logger.error("Kein Kilometerbereich für {} - {} km gefunden", kmMin, kmMax);
+            throw new RuntimeException("Kein Kilometerbereich für " + kmMin + " - " + kmMax + " km gefunden.");
+        }
+        return bandIndex;
+    }
+
+    private double vehicleFactor(PremiumFactorTable table, Long vehicleId) {
+        var factor = table.vehicleFactor(vehicleId);
+        if (Double.isNaN(factor)) {
+            logger.error("Fahrzeug mit ID {} nicht gefunden.", vehicleId);
+            throw new RuntimeException("Fahrzeug mit ID " + vehicleId + " nicht gefunden.");
+        }
+        return factor;
+    }
+
+    private double regionFactor(PremiumFactorTable table, String postcode) {
+        return table.regionFactorAt(regionIndex(table, postcode));
+    }
+
+    private int regionIndex(PremiumFactorTable table, String postcode) {
+        var context = table.resolve(null, null, postcode);
+        if (!context.hasRegion()) {
+            logger.error("Region für Postleitzahl {} nicht gefunden.", postcode);
+            throw new RuntimeException("Region für Postleitzahl " + postcode + " nicht gefunden.");
+        }
+        return context.regionIndex();
+    }
 }
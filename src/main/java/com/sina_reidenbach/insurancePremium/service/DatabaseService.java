@@ -1,23 +1,37 @@
 package com.sina_reidenbach.insurancePremium.service;
 
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import com.opencsv.CSVReaderBuilder;
+import com.sina_reidenbach.insurancePremium.cache.ReferenceDataSnapshot;
 import com.sina_reidenbach.insurancePremium.model.*;
 import com.sina_reidenbach.insurancePremium.repository.*;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.PersistenceContext;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.zip.CRC32;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,59 +47,100 @@ import org.slf4j.LoggerFactory;
 public class DatabaseService {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseService.class);
-    private final List<String[]> data = new ArrayList<>();
 
     @Autowired
     private ApplicationContext applicationContext;
     @Autowired
-    private PostcodeRepository postcodeRepository;
-    @Autowired
     private RegionRepository regionRepository;
     @Autowired
-    private CityRepository cityRepository;
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private AnnoKilometersRepository annoKilometersRepository;
+    @Autowired
+    private PremiumFactorService premiumFactorService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PostcodeLookupService postcodeLookupService;
+    @Autowired
+    private EntityService entityService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${insurance.import.batch-size:1000}")
+    private int batchSize = 1000;
+    @Value("${insurance.import.writers:4}")
+    private int writerCount = 4;
+    @Value("${insurance.import.queue-capacity:4}")
+    private int queueCapacity = 4;
+    @Value("${insurance.snapshot.path:}")
+    private String snapshotPath = "";
 
     @PersistenceContext
     private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     /**
      *********************************************************************************************************
      * Wird beim Starten der Anwendung ausgeführt und initialisiert den Datenimport sowie das Speichern in   *
-     * der Datenbank.                                                                                        *
+     * der Datenbank. Liegt eine passende Momentaufnahme unter insurance.snapshot.path vor, wird diese       *
+     * geladen; andernfalls wird die CSV-Datei importiert und die Momentaufnahme danach geschrieben.         *
+     * Da beide Wege per JDBC an Hibernate vorbei schreiben, werden danach Second-Level- und Query-Cache     *
+     * geleert. Anschließend werden die Faktortabelle für die Prämienberechnung und das Sichtmodell der      *
+     * Startseite neu aufgebaut und, falls insurance.lookup.mode=mapped gesetzt ist, die                     *
+     * Postleitzahlen-Nachschlagedatei eingeblendet; geschrieben wird sie nur, wenn sie fehlt oder veraltet  *
+     * ist.                                                                                                  *
      *********************************************************************************************************
      */
     @EventListener(ApplicationReadyEvent.class)
     public void init() {
         logger.info("✅ DatabaseService gestartet!");
-        readCSV();
+        var start = System.nanoTime();
         var proxy = applicationContext.getBean(DatabaseService.class);
-        proxy.saveDataTransactional();
+        if (!proxy.loadSnapshot()) {
+            proxy.saveDataTransactional();
+            writeSnapshot();
+        }
+        evictCaches();
+        premiumFactorService.reload();
+        entityService.getHomePageModel();
+        if (postcodeLookupService.isMapped()) {
+            try {
+                postcodeLookupService.publish(readSnapshotFromDatabase());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("⚠️ Postleitzahlen-Nachschlagedatei konnte nicht erstellt werden: {}", e.getMessage());
+            }
+        }
+        logger.info("✅ Stammdaten nach {} ms bereit", (System.nanoTime() - start) / 1_000_000);
     }
 
     /**
      *********************************************************************************************************
-     * Liest die CSV-Datei mit den Postleitzahlen und extrahiert die relevanten Daten.                       *
+     * Leert den Second-Level-Cache und alle Query-Cache-Regionen. Der Import und das Laden der              *
+     * Momentaufnahme schreiben per JdbcTemplate und umgehen damit die Zeitstempel, mit denen Hibernate      *
+     * zwischengespeicherte Abfrageergebnisse ungültig macht.                                                *
      *********************************************************************************************************
      */
-    public void readCSV() {
-        try (InputStream inputStream = new ClassPathResource("postcodes.csv").getInputStream();
-             Reader reader = new InputStreamReader(inputStream);
-             var csvReader = new CSVReader(reader)) {
-
-            var rows = csvReader.readAll();
-            var firstLine = true;
-
-            for (String[] values : rows) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
-                if (values.length > 7) {
-                    data.add(values);
-                }
-            }
-        } catch (IOException | CsvException e) {
-            logger.error("❌ Fehler beim Lesen der Datei: {}", e.getMessage());
-        }
+    private void evictCaches() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        logger.info("🚀 Second-Level- und Query-Cache nach dem Import geleert");
+    }
+
+    /**
+     *********************************************************************************************************
+     * Öffnet die CSV-Datei mit den Postleitzahlen zum zeilenweisen Lesen.                                   *
+     * Die Kopfzeile wird übersprungen. Der Aufrufer ist für das Schließen des Readers verantwortlich.       *
+     *                                                                                                       *
+     * @return Ein CSVReader, der die Datenzeilen einzeln liefert.                                           *
+     * @throws IOException Wenn die Datei nicht geöffnet werden kann.                                        *
+     *********************************************************************************************************
+     */
+    public CSVReader openCSV() throws IOException {
+        var reader = new InputStreamReader(new ClassPathResource("postcodes.csv").getInputStream(), StandardCharsets.UTF_8);
+        return new CSVReaderBuilder(reader).withSkipLines(1).build();
     }
 
     /**
@@ -95,11 +150,7 @@ public class DatabaseService {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public List<Anno_Kilometers> createAnno_Kilometers() {
-        var annoKilometersList = Arrays.asList(
-                new Anno_Kilometers(0, 5000, 0.5),
-                new Anno_Kilometers(5001, 10000, 1.0),
-                new Anno_Kilometers(10001, 20000, 1.5),
-                new Anno_Kilometers(20001, Integer.MAX_VALUE, 2.0));
+        var annoKilometersList = annoKilometersDefinitions();
 
         for (Anno_Kilometers annoKilometers : annoKilometersList) {
             entityManager.persist(annoKilometers);
@@ -116,7 +167,26 @@ public class DatabaseService {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public List<Vehicle> createVehicle() {
-        var vehicleList = Arrays.asList(
+        var vehicleList = vehicleDefinitions();
+
+        for (Vehicle vehicle : vehicleList) {
+            entityManager.persist(vehicle);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return vehicleList;
+    }
+
+    private static List<Anno_Kilometers> annoKilometersDefinitions() {
+        return Arrays.asList(
+                new Anno_Kilometers(0, 5000, 0.5),
+                new Anno_Kilometers(5001, 10000, 1.0),
+                new Anno_Kilometers(10001, 20000, 1.5),
+                new Anno_Kilometers(20001, Integer.MAX_VALUE, 2.0));
+    }
+
+    private static List<Vehicle> vehicleDefinitions() {
+        return Arrays.asList(
                 new Vehicle("Pkw Kraftstoff", 1.5),
                 new Vehicle("Lkw ohne Anhänger", 1.5),
                 new Vehicle("Motorrad", 2.0),
@@ -132,13 +202,6 @@ public class DatabaseService {
                 new Vehicle("Lkw mit Anhänger", 2.0),
                 new Vehicle("Geländewagen (SUV)", 1.5),
                 new Vehicle("Moped", 2.0));
-
-        for (Vehicle vehicle : vehicleList) {
-            entityManager.persist(vehicle);
-            entityManager.flush();
-            entityManager.clear();
-        }
-        return vehicleList;
     }
 
     /**
@@ -149,7 +212,20 @@ public class DatabaseService {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public List<Region> createRegion() {
 
-        var regionList = Arrays.asList(
+        var regionList = regionDefinitions();
+
+        for (Region region : regionList) {
+            entityManager.persist(region);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        var count = (long) entityManager.createQuery("SELECT COUNT(r) FROM Region r").getSingleResult();
+
+        return regionList;
+    }
+
+    private static List<Region> regionDefinitions() {
+        return Arrays.asList(
                 new Region("Baden-Württemberg", 1.5),
                 new Region("Bayern", 1.5),
                 new Region("Berlin", 2.0),
@@ -166,117 +242,235 @@ public class DatabaseService {
                 new Region("Sachsen-Anhalt", 0.5),
                 new Region("Schleswig-Holstein", 0.5),
                 new Region("Thüringen", 1.0));
+    }
 
-        for (Region region : regionList) {
-            entityManager.persist(region);
-            entityManager.flush();
-            entityManager.clear();
-        }
-        var count = (long) entityManager.createQuery("SELECT COUNT(r) FROM Region r").getSingleResult();
+    /**
+     *********************************************************************************************************
+     * Importiert Städte und Postleitzahlen gesammelt per JDBC-Batch.                                        *
+     * Die Zeilen werden einzeln durchlaufen und nicht im Speicher gehalten. Ein Parser verteilt neue Städte *
+     * und Postleitzahlen in Blöcken von höchstens insurance.import.batch-size Einträgen auf                 *
+     * insurance.import.writers parallele Writer (siehe {@link PostcodeImportPipeline}).                     *
+     * Bereits vorhandene Einträge werden übersprungen; nach dem Import bleibt nichts zurück.                *
+     *                                                                                                       *
+     * @param rows Die CSV-Zeilen, z.B. ein CSVReader.                                                       *
+     *********************************************************************************************************
+     */
+    public void importCitiesAndPostcodes(Iterable<String[]> rows) {
+        var regionIds = new HashMap<String, Long>();
+        regionRepository.findAll().forEach(region -> regionIds.put(region.getName(), region.getId()));
+        var cityIds = loadCityIds();
+        var knownPostcodes = new HashSet<>(jdbcTemplate.queryForList("SELECT postcode_value FROM postcode", String.class));
 
-        return regionList;
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        new PostcodeImportPipeline(jdbcTemplate, transactionTemplate, batchSize, writerCount, queueCapacity)
+                .run(rows, regionIds, cityIds, knownPostcodes);
+    }
+
+    private Map<String, Long> loadCityIds() {
+        var cityIds = new HashMap<String, Long>();
+        jdbcTemplate.query("SELECT id, name FROM city ORDER BY id",
+                (RowCallbackHandler) resultSet -> cityIds.putIfAbsent(resultSet.getString("name"), resultSet.getLong("id")));
+        return cityIds;
     }
 
     /**
      *********************************************************************************************************
-     * Erstellt eine City, wenn diese noch nicht existiert, und speichert sie in der Datenbank.              *
+     * Lädt die Stammdaten aus der binären Momentaufnahme, sofern sie vorhanden ist, zur aktuellen           *
+     * CSV-Datei und den fest hinterlegten Kilometerbereichen, Fahrzeugen und Regionen passt und die         *
+     * Datenbank noch leer ist. Die Datensätze werden mit ihren ursprünglichen IDs per JDBC-Batch eingefügt; *
+     * die ID-Generatoren werden danach hinter die höchste ID gesetzt (H2 und andere Datenbanken per         *
+     * ALTER COLUMN ... RESTART WITH, MySQL und MariaDB per AUTO_INCREMENT).                                 *
+     *                                                                                                       *
+     * @return True, wenn die Daten aus der Momentaufnahme geladen wurden.                                   *
+     *********************************************************************************************************
+     */
+    @Transactional
+    public boolean loadSnapshot() {
+        if (snapshotPath.isBlank() || !Files.isReadable(Path.of(snapshotPath))) {
+            return false;
+        }
+        try {
+            var start = System.nanoTime();
+            var snapshot = ReferenceDataSnapshot.read(Path.of(snapshotPath));
+            if (snapshot.sourceChecksum() != sourceChecksum()) {
+                logger.info("🚀 Momentaufnahme ist veraltet, CSV-Datei wird neu importiert");
+                return false;
+            }
+            if (regionRepository.count() > 0) {
+                logger.info("🚀 Datenbank enthält bereits Daten, Momentaufnahme wird nicht geladen");
+                return false;
+            }
+
+            jdbcTemplate.batchUpdate("INSERT INTO anno_kilometers (id, min, max, factor) VALUES (?, ?, ?, ?)",
+                    snapshot.annoKilometers(), batchSize, (statement, row) -> {
+                        statement.setLong(1, row.id());
+                        statement.setInt(2, row.min());
+                        statement.setInt(3, row.max());
+                        statement.setDouble(4, row.factor());
+                    });
+            jdbcTemplate.batchUpdate("INSERT INTO vehicle (id, name, factor) VALUES (?, ?, ?)",
+                    snapshot.vehicles(), batchSize, (statement, row) -> {
+                        statement.setLong(1, row.id());
+                        statement.setString(2, row.name());
+                        statement.setDouble(3, row.factor());
+                    });
+            jdbcTemplate.batchUpdate("INSERT INTO region (id, name, factor) VALUES (?, ?, ?)",
+                    snapshot.regions(), batchSize, (statement, row) -> {
+                        statement.setLong(1, row.id());
+                        statement.setString(2, row.name());
+                        statement.setDouble(3, row.factor());
+                    });
+            jdbcTemplate.batchUpdate("INSERT INTO city (id, name, region_id) VALUES (?, ?, ?)",
+                    snapshot.cities(), batchSize, (statement, row) -> {
+                        statement.setLong(1, row.id());
+                        statement.setString(2, row.name());
+                        statement.setLong(3, row.regionId());
+                    });
+            jdbcTemplate.batchUpdate("INSERT INTO postcode (id, postcode_value, city_id, region_id) VALUES (?, ?, ?, ?)",
+                    snapshot.postcodes(), batchSize, (statement, row) -> {
+                        statement.setLong(1, row.id());
+                        statement.setString(2, row.value());
+                        statement.setLong(3, row.cityId());
+                        statement.setLong(4, row.regionId());
+                    });
+            for (var table : List.of("anno_kilometers", "vehicle", "region", "city", "postcode")) {
+                restartIdentity(table);
+            }
+            logger.info("🚀 Momentaufnahme mit {} Städten und {} Postleitzahlen in {} ms geladen",
+                    snapshot.cities().size(), snapshot.postcodes().size(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            logger.warn("⚠️ Momentaufnahme konnte nicht gelesen werden: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
      *********************************************************************************************************
-     * @param cityName Der Name der Stadt, die erstellt oder gefunden werden soll.                           *
-     * @param region Die Region, der die Stadt zugeordnet wird.                                               *
-     * @return Die erstellte oder gefundene City.                                                             *
+     * Schreibt den aktuellen Stand der Stammdaten als binäre Momentaufnahme nach insurance.snapshot.path.   *
+     * Fehler werden nur protokolliert, da die Anwendung auch ohne Momentaufnahme lauffähig ist.             *
      *********************************************************************************************************
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public City createCity(String cityName, Region region) {
-        return cityRepository.findFirstByName(cityName)
-                .orElseGet(() -> {
-                    var city = new City();
-                    city.setName(cityName);
-                    city.setRegion(region);
-                    entityManager.persist(city);
-                    entityManager.flush();
-                    entityManager.clear();
-                    return city;
-                });
+    public void writeSnapshot() {
+        if (snapshotPath.isBlank()) {
+            return;
+        }
+        try {
+            var snapshot = readSnapshotFromDatabase();
+            if (snapshot.postcodes().isEmpty()) {
+                logger.warn("⚠️ Keine Postleitzahlen vorhanden, Momentaufnahme wird nicht geschrieben");
+                return;
+            }
+            snapshot.write(Path.of(snapshotPath));
+            logger.info("🚀 Momentaufnahme nach {} geschrieben", snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("⚠️ Momentaufnahme konnte nicht geschrieben werden: {}", e.getMessage());
+        }
     }
 
     /**
      *********************************************************************************************************
-     * Erstellt ein Postcode, wenn dieses noch nicht existiert, und speichert es in der Datenbank.           *
+     * Liest den aktuellen Stand der Stammdaten per JDBC aus der Datenbank.                                  *
+     *                                                                                                       *
+     * @return Die Stammdaten als Momentaufnahme.                                                            *
+     * @throws IOException Wenn die Prüfsumme der Quelldaten nicht berechnet werden kann.                    *
+     *********************************************************************************************************
+     */
+    public ReferenceDataSnapshot readSnapshotFromDatabase() throws IOException {
+        return new ReferenceDataSnapshot(sourceChecksum(),
+                jdbcTemplate.query("SELECT id, min, max, factor FROM anno_kilometers ORDER BY id",
+                        (resultSet, i) -> new ReferenceDataSnapshot.AnnoKilometersRow(resultSet.getLong("id"),
+                                resultSet.getInt("min"), resultSet.getInt("max"), resultSet.getDouble("factor"))),
+                jdbcTemplate.query("SELECT id, name, factor FROM vehicle ORDER BY id",
+                        (resultSet, i) -> new ReferenceDataSnapshot.VehicleRow(resultSet.getLong("id"),
+                                resultSet.getString("name"), resultSet.getDouble("factor"))),
+                jdbcTemplate.query("SELECT id, name, factor FROM region ORDER BY id",
+                        (resultSet, i) -> new ReferenceDataSnapshot.RegionRow(resultSet.getLong("id"),
+                                resultSet.getString("name"), resultSet.getDouble("factor"))),
+                jdbcTemplate.query("SELECT id, name, region_id FROM city ORDER BY id",
+                        (resultSet, i) -> new ReferenceDataSnapshot.CityRow(resultSet.getLong("id"),
+                                resultSet.getString("name"), resultSet.getLong("region_id"))),
+                jdbcTemplate.query("SELECT id, postcode_value, city_id, region_id FROM postcode ORDER BY id",
+                        (resultSet, i) -> new ReferenceDataSnapshot.PostcodeRow(resultSet.getLong("id"),
+                                resultSet.getString("postcode_value"), resultSet.getLong("city_id"),
+                                resultSet.getLong("region_id"))));
+    }
+
+    /**
      *********************************************************************************************************
-     * @param value Der Wert der Postleitzahl, die erstellt oder gefunden werden soll.                      *
-     * @param city Die Stadt, die der Postleitzahl zugeordnet wird.                                           *
-     * @param region Die Region, die der Postleitzahl zugeordnet wird.                                        *
-     * @return Das erstellte oder gefundene Postcode-Objekt.                                                  *
+     * Berechnet die Prüfsumme der Quelldaten einer Momentaufnahme: der CSV-Datei und der fest hinterlegten  *
+     * Kilometerbereiche, Fahrzeuge und Regionen. Ändert sich eines davon, ist die Momentaufnahme veraltet.  *
+     *                                                                                                       *
+     * @return Die CRC32-Prüfsumme.                                                                          *
+     * @throws IOException Wenn die CSV-Datei nicht gelesen werden kann.                                     *
      *********************************************************************************************************
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public Postcode createPostcode(String value, City city, Region region) {
-        return postcodeRepository.findFirstByPostcodeValue(value)
-                .orElseGet(() -> {
-                    var postcode = new Postcode();
-                    postcode.setPostcodeValue(value);
-                    postcode.setCity(city);
-                    postcode.setRegion(region);
-                    entityManager.persist(postcode);
-                    entityManager.flush();
-                    entityManager.clear();
-                    return postcode;
-                });
+    long sourceChecksum() throws IOException {
+        var checksum = new CRC32();
+        try (InputStream inputStream = new ClassPathResource("postcodes.csv").getInputStream()) {
+            var buffer = new byte[64 * 1024];
+            for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+                checksum.update(buffer, 0, read);
+            }
+        }
+        var definitions = new StringBuilder();
+        for (var annoKilometers : annoKilometersDefinitions()) {
+            definitions.append(annoKilometers.getMin()).append(';').append(annoKilometers.getMax()).append(';')
+                    .append(annoKilometers.getFactor()).append('\n');
+        }
+        for (var vehicle : vehicleDefinitions()) {
+            definitions.append(vehicle.getName()).append(';').append(vehicle.getFactor()).append('\n');
+        }
+        for (var region : regionDefinitions()) {
+            definitions.append(region.getName()).append(';').append(region.getFactor()).append('\n');
+        }
+        checksum.update(definitions.toString().getBytes(StandardCharsets.UTF_8));
+        return checksum.getValue();
+    }
+
+    private void restartIdentity(String table) {
+        var nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+        try {
+            var product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if ("MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product)) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + nextId);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ ID-Generator der Tabelle {} konnte nicht zurückgesetzt werden: {}", table, e.getMessage());
+        }
     }
 
     /**
      *********************************************************************************************************
      * Speichert alle Daten aus der CSV-Datei in der Datenbank.                                              *
-     * Erstellt und speichert die Tabellen Anno_Kilometers, Vehicle, Region, City und Postcode.              *
+     * Die CSV-Datei wird dabei zeilenweise gelesen und nicht vollständig im Speicher gehalten.              *
+     * Anno_Kilometers, Vehicle und Region werden zuerst in einer eigenen Transaktion gespeichert und        *
+     * bestätigt, da die Writer der Import-Pipeline auf eigenen Verbindungen auf die Regionen verweisen.     *
+     * Bereits befüllte Tabellen (z.B. nach einem Neustart mit ddl-auto=update) werden nicht erneut befüllt; *
+     * bei City und Postcode werden vorhandene Einträge übersprungen. Erst danach werden City und Postcode   *
+     * importiert.                                                                                           *
      * Wenn Daten fehlen oder ungültig sind, wird eine Warnung ausgegeben.                                   *
      *********************************************************************************************************
      */
-    @Transactional(noRollbackFor = Exception.class)
     public void saveDataTransactional() {
 
         try {
-            if (data.isEmpty()) {
+            if (!new ClassPathResource("postcodes.csv").exists()) {
                 logger.warn("⚠️ Keine Daten zum Speichern!");
                 return;
             }
 
-            var annoKilometersList = createAnno_Kilometers();
-            logger.info("🚀 Tabelle Anno_kilometers wurde erstellt und befüllt");
-            var vehicleList = createVehicle();
-            logger.info("🚀 Tabelle Vehicle wurde erstellt und befüllt");
-            var regionList = createRegion();
-            logger.info("🚀 Tabelle Region wurde erstellt und befüllt");
+            seedReferenceData();
             logger.info("🚀 einen Moment bitte....");
 
-            for (String[] row : data) {
-                var regionName = row[2].replace("\"", "").trim();
-                var value = row[6].replace("\"", "").trim();
-                var cityName = row[7].replace("\"", "").trim();
-
-
-                if (value.length() != 5 || !value.matches("\\d{5}")) {
-                    logger.warn("⚠️ Ungültige oder fehlende Postleitzahl: {}", value);
-                }
-
-                if (regionName.isEmpty() || cityName.isEmpty()) {
-                    logger.warn("⚠️ Fehlende Region oder Stadt für Postleitzahl: {}", value);
-                }
-
-                if (!regionName.isEmpty() && !cityName.isEmpty() && !value.isEmpty() && value.matches("\\d{5}")) {
-                    var optionalRegion = regionRepository.findByName(regionName);
-                    if (optionalRegion.isEmpty()) {
-                        logger.warn("⚠️ Region nicht gefunden: {}", regionName);
-                        continue;
-                    }
-                    var region = optionalRegion.get();
-                    var city = createCity(cityName, region);
-                    var postcode = createPostcode(value, city, region);
-                }
+            try (var csvReader = openCSV()) {
+                importCitiesAndPostcodes(csvReader);
             }
             logger.info("🚀 Tabellen Postcode und City wurden erstellt und befüllt");
-            entityManager.flush();
-            entityManager.clear();
 
             logger.info("✅ Alle Daten wurden erfolgreich gespeichert!");
 
@@ -284,4 +478,29 @@ public class DatabaseService {
             logger.error("❌ Fehler beim Speichern der Daten: {}", e.getMessage(), e);
         }
     }
+
+    private void seedReferenceData() {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (annoKilometersRepository.count() == 0) {
+                createAnno_Kilometers();
+                logger.info("🚀 Tabelle Anno_kilometers wurde erstellt und befüllt");
+            } else {
+                logger.info("🚀 Tabelle Anno_kilometers ist bereits befüllt");
+            }
+            if (vehicleRepository.count() == 0) {
+                createVehicle();
+                logger.info("🚀 Tabelle Vehicle wurde erstellt und befüllt");
+            } else {
+                logger.info("🚀 Tabelle Vehicle ist bereits befüllt");
+            }
+            if (regionRepository.count() == 0) {
+                createRegion();
+                logger.info("🚀 Tabelle Region wurde erstellt und befüllt");
+            } else {
+                logger.info("🚀 Tabelle Region ist bereits befüllt");
+            }
+        });
+    }
 }
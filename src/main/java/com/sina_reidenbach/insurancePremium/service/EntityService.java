@@ -1,6 +1,10 @@
 package com.sina_reidenbach.insurancePremium.service;
 
+import com.sina_reidenbach.insurancePremium.cache.PostcodeOptionFragments;
+import com.sina_reidenbach.insurancePremium.cache.PostcodeOptions;
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
 import com.sina_reidenbach.insurancePremium.dto.AnnoKilometersResponse;
+import com.sina_reidenbach.insurancePremium.dto.HomePageModel;
 import com.sina_reidenbach.insurancePremium.dto.PremiumResult;
 import com.sina_reidenbach.insurancePremium.dto.RegionResponse;
 import com.sina_reidenbach.insurancePremium.dto.VehicleResponse;
@@ -12,10 +16,10 @@ import com.sina_reidenbach.insurancePremium.repository.*;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
-import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.ui.Model;
 
@@ -42,6 +46,21 @@ public class EntityService {
     private VehicleRepository vehicleRepository;
     @Autowired
     private AnnoKilometersRepository annoKilometersRepository;
+    @Autowired
+    private PremiumFactorService premiumFactorService;
+    @Autowired
+    private PostcodeLookupService postcodeLookupService;
+
+    @Value("${insurance.postcodes.filter-limit:50}")
+    private int postcodeFilterLimit = 50;
+    @Value("${insurance.page.postcode-list:lazy}")
+    private String postcodeListMode = "lazy";
+
+    private volatile PostcodeOptionFragments postcodeOptionFragments;
+    private volatile CachedHomePage homePage;
+
+    private record CachedHomePage(PremiumFactorTable table, HomePageModel model) {
+    }
 
     /**
      ********************************************************************************************************
@@ -108,86 +127,80 @@ public class EntityService {
     /**
      ********************************************************************************************************
      * Filtert die Postleitzahlen anhand eines Eingabewerts.                                                *
+     * Nutzt den vorberechneten Präfix-Index und liefert höchstens                                          *
+     * insurance.postcodes.filter-limit Treffer.                                                            *
      *                                                                                                      *
      * @param input Der Eingabewert zur Filterung der Postleitzahlen.                                       *
-     * @return Eine Liste von Postleitzahlen, die mit dem Eingabewert beginnen.                             *
+     * @return Eine sortierte Liste von Postleitzahlen, die mit dem Eingabewert beginnen.                   *
      ********************************************************************************************************
      */
-    public List<Postcode> filterPostcodesByInput(String input) {
-        return postcodeRepository.findAll().stream()
-                .filter(postcode -> postcode.getPostcodeValue().startsWith(input))
-                .toList();
-    }
-
-    /**
-     ********************************************************************************************************
-     * Gibt eine sortierte Liste der Postleitzahlen zurück.                                                 *
-     *                                                                                                      *
-     * @return Eine sortierte Liste von Postleitzahlen.                                                     *
-     ********************************************************************************************************
-     */
-    public List<Postcode> getSortedPostcodes() {
-        return postcodeRepository.findAll().stream()
-                .sorted(Comparator.comparing(Postcode::getPostcodeValue))
-                .collect(Collectors.toList());
+    public List<String> filterPostcodesByInput(String input) {
+        return premiumFactorService.getTable().getPostcodeIndex().findByPrefix(input, postcodeFilterLimit);
     }
 
     /**
      ********************************************************************************************************
      * Sucht eine Postleitzahl anhand ihres Werts.                                                          *
+     * Im Modus insurance.lookup.mode=mapped wird die eingeblendete Nachschlagedatei verwendet.             *
      *                                                                                                      *
      * @param postcodeValue Der Wert der Postleitzahl, nach der gesucht werden soll.                        *
      * @return Ein Optional mit der Postleitzahl, wenn gefunden.                                            *
      ********************************************************************************************************
      */
     public Optional<Postcode> findPostcode(String postcodeValue) {
+        var lookup = postcodeLookupService.getLookup();
+        if (lookup != null) {
+            return lookup.findPostcode(postcodeValue);
+        }
         return postcodeRepository.findFirstByPostcodeValue(postcodeValue);
     }
 
     /**
      ********************************************************************************************************
-     * Prüft, ob eine bestimmte Postleitzahl existiert.                                                     *
+     * Generiert eine HTML-Liste von Postleitzahlen basierend auf einer Eingabe.                            *
      *                                                                                                      *
-     * @param postcode Die Postleitzahl, die überprüft werden soll.                                         *
-     * @return True, wenn die Postleitzahl existiert, andernfalls false.                                    *
+     * @param input Der Eingabewert zur Filterung der Postleitzahlen.                                       *
+     * @return Eine HTML-Option-Liste mit Postleitzahlen.                                                   *
      ********************************************************************************************************
      */
-    public boolean isPostcodeValid(String postcode) {
-        return postcodeRepository.existsByPostcodeValue(postcode);
+
+    public String generatePostcodeOptions(String input) {
+        return getPostcodeOptions(input).html();
     }
 
     /**
      ********************************************************************************************************
-     * Generiert eine HTML-Liste von Postleitzahlen basierend auf einer Eingabe.                            *
+     * Liefert die HTML-Option-Liste für eine Eingabe als vorkodierte Bytes inklusive ETag.                 *
+     * Für Präfixe mit bis zu drei Ziffern werden die Fragmente einmalig pro Faktortabelle vorberechnet.    *
      *                                                                                                      *
      * @param input Der Eingabewert zur Filterung der Postleitzahlen.                                       *
-     * @return Eine HTML-Option-Liste mit Postleitzahlen.                                                   *
+     * @return Die kodierte HTML-Option-Liste mit ETag.                                                     *
      ********************************************************************************************************
      */
-
-    public String generatePostcodeOptions(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            return "<option value=\"\">Keine Postleitzahl eingegeben</option>";
-        }
-        var filteredPostcodes = filterPostcodesByInput(input);
-        if (filteredPostcodes.isEmpty()) {
-            return "<option value=\"\">Keine Postleitzahlen gefunden</option>";
+    public PostcodeOptions getPostcodeOptions(String input) {
+        var index = premiumFactorService.getTable().getPostcodeIndex();
+        var fragments = postcodeOptionFragments;
+        if (fragments == null || !fragments.isBuiltFrom(index, postcodeFilterLimit)) {
+            fragments = new PostcodeOptionFragments(index, postcodeFilterLimit);
+            postcodeOptionFragments = fragments;
         }
-
-        return filteredPostcodes.stream()
-                .map(postcode -> String.format("<option value=\"%s\">%s</option>", postcode.getPostcodeValue(), postcode.getPostcodeValue()))
-                .collect(Collectors.joining());
+        return fragments.render(input);
     }
 
     /**
      ********************************************************************************************************
      * Sucht eine Stadt anhand ihrer Postleitzahl.                                                          *
+     * Im Modus insurance.lookup.mode=mapped wird die eingeblendete Nachschlagedatei verwendet.             *
      *                                                                                                      *
      * @param postcodeValue Der Wert der Postleitzahl, nach der die Stadt gesucht werden soll.              *
      * @return Ein Optional mit der Stadt, wenn gefunden.                                                   *
      ********************************************************************************************************
      */
     public Optional<City> findCityByPostcode(String postcodeValue) {
+        var lookup = postcodeLookupService.getLookup();
+        if (lookup != null) {
+            return lookup.findCityByPostcode(postcodeValue);
+        }
         return Optional.ofNullable(cityRepository.findByPostcodes_PostcodeValue(postcodeValue));
     }
 
@@ -204,31 +217,22 @@ public class EntityService {
         return Optional.ofNullable(regionRepository.findByCities_Name(cityName));
     }
 
-    /**
-     ********************************************************************************************************
-     * Gibt den Namen der Region für eine bestimmte Postleitzahl zurück.                                    *
-     *                                                                                                      *
-     * @param postcodeValue Der Wert der Postleitzahl, für die der Region-Name gesucht werden soll.         *
-     * @return Der Name der Region, oder "Unbekannt", wenn keine Region gefunden wurde.                     *
-     ********************************************************************************************************
-     */
-    public String getRegionNameByPostcode(String postcodeValue) {
-        return findRegionByCityName(postcodeValue).map(Region::getName).orElse("Unbekannt");
-    }
-
     /**
      ********************************************************************************************************
      * Gibt den Faktor der Region für eine bestimmte Postleitzahl zurück.                                   *
+     * Der Faktor wird direkt aus der vorgeladenen Postleitzahlentabelle bzw. im Modus                      *
+     * insurance.lookup.mode=mapped aus der eingeblendeten Nachschlagedatei gelesen.                        *
      *                                                                                                      *
-     * @param postcode Die Postleitzahl, für die der Region-Faktor gesucht wird.                            *
+     * @param postcode Die fünfstellige Postleitzahl, für die der Region-Faktor gesucht wird.               *
      * @return Der Faktor der Region, wenn gefunden.                                                        *
      * @throws RuntimeException Wenn die Region für die Postleitzahl nicht gefunden wurde.                  *
      ********************************************************************************************************
      */
     public double getRegionFactor(String postcode) {
-        var regionOpt = regionRepository.findByPostcodeValueStartingWith(postcode);
-        if (regionOpt.isPresent()) {
-            return regionOpt.get().getFactor();
+        var lookup = postcodeLookupService.getLookup();
+        var factor = lookup != null ? lookup.regionFactor(postcode) : premiumFactorService.getTable().regionFactor(postcode);
+        if (!Double.isNaN(factor)) {
+            return factor;
         } else {
             errorHandlingService.logAndThrowError("Region für Postleitzahl " + postcode + " nicht gefunden.");
         }
@@ -254,13 +258,44 @@ public class EntityService {
     /**
      ********************************************************************************************************
      * Fügt die Standard-Model-Attribute für Fahrzeuge und Postleitzahlen hinzu.                            *
+     * Die Listen und die vorgerenderte Fahrzeugauswahl stammen aus dem zwischengespeicherten               *
+     * Sichtmodell und werden nicht pro Aufruf geladen.                                                     *
+     * Die Postleitzahlenliste wird nur bei insurance.page.postcode-list=inline in die Seite geschrieben;   *
+     * standardmäßig (lazy) lädt die Seite die Vorschläge über /filter-postcodes nach.                      *
      *                                                                                                      *
      * @param model Das Model, dem die Standard-Attribute hinzugefügt werden.                               *
      ********************************************************************************************************
      */
     public void addDefaultAttributes(Model model) {
-        model.addAttribute("vehicleList", getSortedVehicleList());
-        model.addAttribute("postcodeList", getSortedPostcodes());
+        var homePage = getHomePageModel();
+        model.addAttribute("vehicleList", homePage.vehicleList());
+        model.addAttribute("vehicleOptions", homePage.vehicleOptions());
+        if ("inline".equalsIgnoreCase(postcodeListMode)) {
+            model.addAttribute("postcodeList", homePage.postcodeList());
+        }
+    }
+
+    /**
+     ********************************************************************************************************
+     * Gibt das Sichtmodell der Startseite zurück.                                                          *
+     * Fahrzeuge werden einmal geladen und sortiert. Die Postleitzahlen stammen aus dem Präfix-Index der    *
+     * Faktortabelle und werden nur bei insurance.page.postcode-list=inline übernommen; sonst bleibt die    *
+     * Liste leer. Das Modell wird erst neu aufgebaut, wenn die Faktortabelle neu geladen wurde.            *
+     *                                                                                                      *
+     * @return Das unveränderliche Sichtmodell mit den sortierten Fahrzeugen und Postleitzahlen.            *
+     ********************************************************************************************************
+     */
+    public HomePageModel getHomePageModel() {
+        var table = premiumFactorService.getTable();
+        var cached = homePage;
+        if (cached == null || cached.table() != table) {
+            var postcodes = "inline".equalsIgnoreCase(postcodeListMode)
+                    ? table.getPostcodeIndex().findByPrefix("", Integer.MAX_VALUE)
+                    : List.<String>of();
+            cached = new CachedHomePage(table, new HomePageModel(getSortedVehicleList(), postcodes));
+            homePage = cached;
+        }
+        return cached.model();
     }
 
     /**
@@ -0,0 +1,123 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.cache.PremiumMatrix;
+import com.sina_reidenbach.insurancePremium.cache.SerializedResponse;
+import com.sina_reidenbach.insurancePremium.dto.PremiumMatrixResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Hält die Antworten der Endpunkte /api/options/vehicles, /regions und /annoKilometers fertig serialisiert  *
+ * vor. Die Antworten werden einmal aus der Datenbank aufgebaut, als Bytes samt ETag abgelegt und erst neu   *
+ * erstellt, wenn die Stammdaten neu geladen wurden (erkennbar an einer neuen Faktortabelle des              *
+ * {@link PremiumFactorService}).                                                                            *
+ * Ebenso wird die Antwort von /api/premium-matrix je {@link PremiumMatrix} einmal serialisiert. Der ETag    *
+ * wird in beiden Fällen aus den serialisierten Bytes gebildet (siehe {@link SerializedResponse#of}).        *
+ *************************************************************************************************************
+ */
+@Service
+public class OptionsResponseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptionsResponseService.class);
+
+    private record Options(PremiumFactorTable table, SerializedResponse vehicles, SerializedResponse regions,
+                           SerializedResponse annoKilometers) {
+    }
+
+    private record Matrix(PremiumMatrix matrix, SerializedResponse response) {
+    }
+
+    @Autowired
+    private EntityService entityService;
+    @Autowired
+    private PremiumFactorService premiumFactorService;
+    @Autowired
+    private CalculateService calculateService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Options options;
+    private volatile Matrix premiumMatrix;
+
+    /**
+     *********************************************************************************************************
+     * Gibt die serialisierte Antwort mit allen Fahrzeugen zurück.                                           *
+     *                                                                                                       *
+     * @return Die Fahrzeuge als JSON samt ETag.                                                             *
+     *********************************************************************************************************
+     */
+    public SerializedResponse getVehicles() {
+        return current().vehicles();
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die serialisierte Antwort mit allen Regionen zurück.                                             *
+     *                                                                                                       *
+     * @return Die Regionen als JSON samt ETag.                                                              *
+     *********************************************************************************************************
+     */
+    public SerializedResponse getRegions() {
+        return current().regions();
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die serialisierte Antwort mit allen Kilometerbereichen zurück.                                   *
+     *                                                                                                       *
+     * @return Die Kilometerbereiche als JSON samt ETag.                                                     *
+     *********************************************************************************************************
+     */
+    public SerializedResponse getAnnoKilometers() {
+        return current().annoKilometers();
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die serialisierte Antwort mit den vorberechneten Prämien zurück.                                 *
+     *                                                                                                       *
+     * @return Die Prämien aller Kombinationen als JSON samt ETag.                                           *
+     *********************************************************************************************************
+     */
+    public SerializedResponse getPremiumMatrix() {
+        var matrix = calculateService.getPremiumMatrix();
+        var current = premiumMatrix;
+        if (current == null || current.matrix() != matrix) {
+            current = new Matrix(matrix, serialize(PremiumMatrixResponse.of(matrix)));
+            premiumMatrix = current;
+            logger.info("🚀 Antwort für /api/premium-matrix neu serialisiert");
+        }
+        return current.response();
+    }
+
+    private Options current() {
+        var table = premiumFactorService.getTable();
+        var current = options;
+        if (current == null || current.table() != table) {
+            synchronized (this) {
+                current = options;
+                if (current == null || current.table() != table) {
+                    current = new Options(table, serialize(entityService.getVehicles()),
+                            serialize(entityService.getRegions()), serialize(entityService.getAnnoKilometers()));
+                    options = current;
+                    logger.info("🚀 Antworten für /api/options neu serialisiert");
+                }
+            }
+        }
+        return current;
+    }
+
+    private SerializedResponse serialize(Object response) {
+        try {
+            return SerializedResponse.of(objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Antwort konnte nicht serialisiert werden: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ *************************************************************************************************************
+ * Mehrstufige Import-Pipeline für Städte und Postleitzahlen.                                                *
+ * Der aufrufende Thread liest und prüft die CSV-Zeilen (Parser-Stufe), dedupliziert sie und verteilt sie    *
+ * in Blöcken auf einen Pool von Writer-Threads (Schreib-Stufe). Jeder Writer besitzt eine eigene,           *
+ * begrenzte Warteschlange; ist sie voll, wartet der Parser (Rückstau).                                      *
+ * Die Blöcke werden nach der Region der Stadt partitioniert: Eine neue Stadt und alle Postleitzahlen, die   *
+ * auf sie verweisen, landen beim selben Writer. Dadurch existiert jede Stadt, bevor ihre Postleitzahlen     *
+ * geschrieben werden, und die Writer müssen sich nicht untereinander abstimmen.                             *
+ *************************************************************************************************************
+ */
+final class PostcodeImportPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostcodeImportPipeline.class);
+    private static final Chunk END_OF_INPUT = new Chunk(List.of(), List.of());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int writerCount;
+    private final int queueCapacity;
+
+    /**
+     *********************************************************************************************************
+     * Konstruktor                                                                                           *
+     *                                                                                                       *
+     * @param jdbcTemplate Das JdbcTemplate für die Batch-Inserts.                                           *
+     * @param transactionTemplate Die Transaktionsvorlage, in der jeder Block geschrieben wird.              *
+     * @param batchSize Die maximale Anzahl an Städten bzw. Postleitzahlen pro Block.                        *
+     * @param writerCount Die Anzahl der Writer-Threads.                                                     *
+     * @param queueCapacity Die Anzahl an Blöcken, die pro Writer höchstens warten dürfen.                   *
+     *********************************************************************************************************
+     */
+    PostcodeImportPipeline(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           int batchSize, int writerCount, int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.writerCount = Math.max(1, writerCount);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Führt den Import aus und kehrt erst zurück, wenn alle Writer fertig sind.                             *
+     *                                                                                                       *
+     * @param rows Die CSV-Zeilen.                                                                           *
+     * @param regionIds Alle Regionen mit ihrer ID, nach Namen.                                              *
+     * @param existingCityIds Bereits gespeicherte Städte mit ihrer ID; wird nicht verändert.                *
+     * @param knownPostcodes Bereits gespeicherte Postleitzahlen; neue Werte werden ergänzt.                 *
+     * @throws IllegalStateException Wenn ein Writer fehlschlägt oder der Import unterbrochen wird.          *
+     *********************************************************************************************************
+     */
+    void run(Iterable<String[]> rows, Map<String, Long> regionIds,
+             Map<String, Long> existingCityIds, Set<String> knownPostcodes) {
+        var start = System.nanoTime();
+        var failure = new AtomicReference<Throwable>();
+        var queues = new ArrayList<BlockingQueue<Chunk>>();
+        var writers = new ArrayList<Writer>();
+        var threadNumber = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(writerCount, runnable -> {
+            var thread = new Thread(runnable, "postcode-import-writer-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < writerCount; i++) {
+            var queue = new ArrayBlockingQueue<Chunk>(queueCapacity);
+            var writer = new Writer(i, queue, existingCityIds, failure);
+            queues.add(queue);
+            writers.add(writer);
+            executor.execute(writer);
+        }
+
+        var parsedRows = 0;
+        var blockedNanos = 0L;
+        try {
+            var newCityRegions = new HashMap<String, Long>();
+            var pending = new ArrayList<ChunkBuilder>();
+            for (int i = 0; i < writerCount; i++) {
+                pending.add(new ChunkBuilder());
+            }
+
+            for (String[] row : rows) {
+                if (row.length <= 7) {
+                    continue;
+                }
+                parsedRows++;
+                var regionName = row[2].replace("\"", "").trim();
+                var value = row[6].replace("\"", "").trim();
+                var cityName = row[7].replace("\"", "").trim();
+
+                if (value.length() != 5 || !value.matches("\\d{5}")) {
+                    logger.warn("⚠️ Ungültige oder fehlende Postleitzahl: {}", value);
+                }
+
+                if (regionName.isEmpty() || cityName.isEmpty()) {
+                    logger.warn("⚠️ Fehlende Region oder Stadt für Postleitzahl: {}", value);
+                }
+
+                if (!regionName.isEmpty() && !cityName.isEmpty() && !value.isEmpty() && value.matches("\\d{5}")) {
+                    var regionId = regionIds.get(regionName);
+                    if (regionId == null) {
+                        logger.warn("⚠️ Region nicht gefunden: {}", regionName);
+                        continue;
+                    }
+                    var cityRegionId = regionId;
+                    var isNewCity = false;
+                    if (!existingCityIds.containsKey(cityName)) {
+                        var firstRegionId = newCityRegions.putIfAbsent(cityName, regionId);
+                        isNewCity = firstRegionId == null;
+                        cityRegionId = isNewCity ? regionId : firstRegionId;
+                    }
+                    var isNewPostcode = knownPostcodes.add(value);
+                    if (!isNewCity && !isNewPostcode) {
+                        continue;
+                    }
+
+                    var partition = (int) Math.floorMod(cityRegionId, (long) writerCount);
+                    var chunk = pending.get(partition);
+                    if (isNewCity) {
+                        chunk.cities.add(new CityRow(cityName, regionId));
+                    }
+                    if (isNewPostcode) {
+                        chunk.postcodes.add(new PostcodeRow(value, cityName, regionId));
+                    }
+                    if (chunk.cities.size() >= batchSize || chunk.postcodes.size() >= batchSize) {
+                        blockedNanos += hand(queues.get(partition), chunk.build());
+                    }
+                }
+            }
+            for (int i = 0; i < writerCount; i++) {
+                var chunk = pending.get(i);
+                if (!chunk.cities.isEmpty() || !chunk.postcodes.isEmpty()) {
+                    blockedNanos += hand(queues.get(i), chunk.build());
+                }
+            }
+            logStage("Parser", parsedRows, System.nanoTime() - start);
+            logger.info("🚀 Parser: {} ms durch Rückstau der Writer blockiert", blockedNanos / 1_000_000);
+        } finally {
+            for (var queue : queues) {
+                handQuietly(queue);
+            }
+            executor.shutdown();
+            awaitWriters(executor);
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Import der Städte und Postleitzahlen fehlgeschlagen: "
+                    + failure.get().getMessage(), failure.get());
+        }
+
+        var savedCities = 0;
+        var savedPostcodes = 0;
+        for (var writer : writers) {
+            savedCities += writer.savedCities;
+            savedPostcodes += writer.savedPostcodes;
+        }
+        var elapsed = System.nanoTime() - start;
+        logger.info("🚀 {} Städte und {} Postleitzahlen mit {} Writern gespeichert", savedCities, savedPostcodes, writerCount);
+        logStage("Import gesamt", parsedRows, elapsed);
+    }
+
+    private static long hand(BlockingQueue<Chunk> queue, Chunk chunk) {
+        var start = System.nanoTime();
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import wurde unterbrochen", e);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void handQuietly(BlockingQueue<Chunk> queue) {
+        try {
+            queue.put(END_OF_INPUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWriters(ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("🚀 einen Moment bitte....");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import wurde unterbrochen", e);
+        }
+    }
+
+    private static void logStage(String stage, long rows, long nanos) {
+        var millis = Math.max(1, nanos / 1_000_000);
+        logger.info("🚀 {}: {} Zeilen in {} ms ({} Zeilen/s)", stage, rows, millis, rows * 1000 / millis);
+    }
+
+    /**
+     *********************************************************************************************************
+     * Writer-Stufe: schreibt die Blöcke einer Partition nacheinander, jeden in einer eigenen Transaktion.   *
+     * Nach einem Fehler werden die restlichen Blöcke nur noch verworfen, damit der Parser nicht blockiert.  *
+     *********************************************************************************************************
+     */
+    private final class Writer implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<Chunk> queue;
+        private final Map<String, Long> existingCityIds;
+        private final Map<String, Long> cityIds = new HashMap<>();
+        private final AtomicReference<Throwable> failure;
+        private int savedCities;
+        private int savedPostcodes;
+
+        private Writer(int index, BlockingQueue<Chunk> queue, Map<String, Long> existingCityIds,
+                       AtomicReference<Throwable> failure) {
+            this.index = index;
+            this.queue = queue;
+            this.existingCityIds = existingCityIds;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            var busyNanos = 0L;
+            try {
+                for (var chunk = queue.take(); chunk != END_OF_INPUT; chunk = queue.take()) {
+                    if (failure.get() != null) {
+                        continue;
+                    }
+                    var start = System.nanoTime();
+                    try {
+                        write(chunk);
+                        savedCities += chunk.cities().size();
+                        savedPostcodes += chunk.postcodes().size();
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                        logger.error("❌ Writer {} fehlgeschlagen: {}", index, e.getMessage(), e);
+                    }
+                    busyNanos += System.nanoTime() - start;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            }
+            logStage("Writer " + index, savedCities + savedPostcodes, busyNanos);
+        }
+
+        private void write(Chunk chunk) {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertCities(chunk.cities());
+                insertPostcodes(chunk.postcodes());
+            });
+        }
+
+        private void insertCities(List<CityRow> cities) {
+            if (cities.isEmpty()) {
+                return;
+            }
+            var keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(
+                            "INSERT INTO city (name, region_id) VALUES (?, ?)", new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            statement.setString(1, cities.get(i).name());
+                            statement.setLong(2, cities.get(i).regionId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return cities.size();
+                        }
+                    },
+                    keyHolder);
+            var keys = keyHolder.getKeyList();
+            for (int i = 0; i < cities.size(); i++) {
+                var id = (Number) keys.get(i).values().iterator().next();
+                cityIds.put(cities.get(i).name(), id.longValue());
+            }
+        }
+
+        private void insertPostcodes(List<PostcodeRow> postcodes) {
+            if (postcodes.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO postcode (postcode_value, city_id, region_id) VALUES (?, ?, ?)",
+                    postcodes, batchSize, (statement, postcode) -> {
+                        var cityId = cityIds.get(postcode.cityName());
+                        statement.setString(1, postcode.value());
+                        statement.setLong(2, cityId != null ? cityId : existingCityIds.get(postcode.cityName()));
+                        statement.setLong(3, postcode.regionId());
+                    });
+        }
+    }
+
+    private static final class ChunkBuilder {
+        private List<CityRow> cities = new ArrayList<>();
+        private List<PostcodeRow> postcodes = new ArrayList<>();
+
+        private Chunk build() {
+            var chunk = new Chunk(cities, postcodes);
+            cities = new ArrayList<>();
+            postcodes = new ArrayList<>();
+            return chunk;
+        }
+    }
+
+    private record Chunk(List<CityRow> cities, List<PostcodeRow> postcodes) {
+    }
+
+    private record CityRow(String name, long regionId) {
+    }
+
+    private record PostcodeRow(String value, String cityName, long regionId) {
+    }
+}
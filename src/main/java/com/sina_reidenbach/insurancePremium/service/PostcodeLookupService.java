@@ -0,0 +1,104 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.cache.MappedPostcodeLookup;
+import com.sina_reidenbach.insurancePremium.cache.ReferenceDataSnapshot;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Verwaltet die per FileChannel.map eingeblendete Nachschlagedatei für Postleitzahlen.                      *
+ * Ist insurance.lookup.mode auf "mapped" gesetzt, beantwortet EntityService Anfragen nach Postleitzahl,     *
+ * Stadt und Regionsfaktor aus dieser Datei statt aus der Datenbank. Mehrere Instanzen auf demselben Host    *
+ * verwenden dieselbe Datei unter insurance.lookup.path; sie wird nur ersetzt, wenn sie fehlt oder ihre      *
+ * Prüfsumme nicht zu den aktuellen Stammdaten passt.                                                        *
+ *************************************************************************************************************
+ */
+@Service
+public class PostcodeLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostcodeLookupService.class);
+
+    @Value("${insurance.lookup.mode:database}")
+    private String mode = "database";
+    @Value("${insurance.lookup.path:}")
+    private String path = "";
+
+    private volatile MappedPostcodeLookup lookup;
+    private volatile boolean opened;
+
+    /**
+     *********************************************************************************************************
+     * Prüft, ob die Nachschlagedatei verwendet werden soll.                                                 *
+     *                                                                                                       *
+     * @return True, wenn insurance.lookup.mode "mapped" ist und ein Pfad konfiguriert wurde.                *
+     *********************************************************************************************************
+     */
+    public boolean isMapped() {
+        return "mapped".equalsIgnoreCase(mode) && !path.isBlank();
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die eingeblendete Nachschlagedatei zurück und öffnet sie beim ersten Zugriff.                    *
+     *                                                                                                       *
+     * @return Die Nachschlagedatei oder null, wenn sie nicht verwendet wird oder nicht verfügbar ist.       *
+     *********************************************************************************************************
+     */
+    public MappedPostcodeLookup getLookup() {
+        if (!isMapped()) {
+            return null;
+        }
+        if (!opened) {
+            synchronized (this) {
+                if (!opened) {
+                    reload();
+                }
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Blendet die Nachschlagedatei ein. Sie wird nur neu geschrieben, wenn sie fehlt oder nicht zu den      *
+     * aktuellen Stammdaten passt; andernfalls wird die vorhandene Datei der anderen Instanzen verwendet.    *
+     *                                                                                                       *
+     * @param snapshot Die aktuellen Stammdaten.                                                             *
+     *********************************************************************************************************
+     */
+    public synchronized void publish(ReferenceDataSnapshot snapshot) {
+        if (!isMapped()) {
+            return;
+        }
+        try {
+            if (MappedPostcodeLookup.write(Path.of(path), snapshot)) {
+                logger.info("🚀 Postleitzahlen-Nachschlagedatei nach {} geschrieben", path);
+            } else {
+                logger.info("🚀 Postleitzahlen-Nachschlagedatei {} ist aktuell und wird wiederverwendet", path);
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Postleitzahlen-Nachschlagedatei konnte nicht geschrieben werden: {}", e.getMessage());
+        }
+        reload();
+    }
+
+    private synchronized void reload() {
+        opened = true;
+        if (!Files.isReadable(Path.of(path))) {
+            logger.warn("⚠️ Postleitzahlen-Nachschlagedatei {} nicht gefunden, Abfragen laufen über die Datenbank", path);
+            return;
+        }
+        try {
+            lookup = MappedPostcodeLookup.open(Path.of(path));
+            logger.info("🚀 Postleitzahlen-Nachschlagedatei {} eingeblendet", path);
+        } catch (IOException e) {
+            logger.warn("⚠️ Postleitzahlen-Nachschlagedatei konnte nicht geöffnet werden: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Verantwortlich für das Vorhalten der Faktortabelle für die Prämienberechnung.                             *
+ * Die Tabelle wird einmalig aus der Datenbank geladen und nach jedem Datenimport neu aufgebaut,             *
+ * sodass die Berechnung selbst ohne Datenbankzugriffe auskommt.                                             *
+ *************************************************************************************************************
+ */
+@Service
+public class PremiumFactorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PremiumFactorService.class);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private AnnoKilometersRepository annoKilometersRepository;
+    @Autowired
+    private RegionRepository regionRepository;
+    @Autowired
+    private PostcodeRepository postcodeRepository;
+
+    private volatile PremiumFactorTable table;
+
+    /**
+     *********************************************************************************************************
+     * Gibt die aktuelle Faktortabelle zurück und lädt sie beim ersten Zugriff aus der Datenbank.            *
+     *                                                                                                       *
+     * @return Die aktuelle, unveränderliche Faktortabelle.                                                  *
+     *********************************************************************************************************
+     */
+    public PremiumFactorTable getTable() {
+        var current = table;
+        if (current == null) {
+            synchronized (this) {
+                current = table;
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Lädt Fahrzeuge, Kilometerbereiche, Regionen und Postleitzahlen neu und ersetzt die Faktortabelle.     *
+     * Muss nach jeder Änderung der Stammdaten aufgerufen werden.                                            *
+     *                                                                                                       *
+     * @return Die neu aufgebaute Faktortabelle.                                                             *
+     *********************************************************************************************************
+     */
+    public synchronized PremiumFactorTable reload() {
+        var start = System.nanoTime();
+        var newTable = PremiumFactorTable.of(
+                vehicleRepository.findAll(),
+                annoKilometersRepository.findAll(),
+                regionRepository.findAll(),
+                postcodeRepository.findAllPostcodeRegionIds());
+        table = newTable;
+        logger.info("🚀 Faktortabelle in {} ms aufgebaut", (System.nanoTime() - start) / 1_000_000);
+        return newTable;
+    }
+}
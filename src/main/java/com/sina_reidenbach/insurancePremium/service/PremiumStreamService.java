@@ -0,0 +1,116 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchItem;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchResult;
+import com.sina_reidenbach.insurancePremium.dto.PremiumStreamSummary;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Berechnet Prämien für sehr große Angebotsdateien zeilenweise.                                             *
+ * Die Eingabe (NDJSON oder CSV mit den Spalten vehicleId, annoKilometers, postcode) wird gelesen, während   *
+ * die Ergebnisse bereits als NDJSON zurückgeschrieben werden; der Speicherbedarf ist dadurch unabhängig von *
+ * der Dateigröße. Die letzte Zeile enthält eine Zusammenfassung mit Durchsatz und abgewiesenen Zeilen.      *
+ *************************************************************************************************************
+ */
+@Service
+public class PremiumStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PremiumStreamService.class);
+    private static final int FLUSH_INTERVAL = 1000;
+
+    @Autowired
+    private CalculateService calculateService;
+    @Autowired
+    private PremiumFactorService premiumFactorService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     *********************************************************************************************************
+     * Liest Angebote zeilenweise und schreibt je Zeile das Ergebnis als JSON-Objekt.                        *
+     *                                                                                                       *
+     * @param input Die Eingabe mit einem Angebot je Zeile.                                                  *
+     * @param csv True für CSV, false für NDJSON.                                                            *
+     * @param output Der Ausgabestrom für die NDJSON-Ergebnisse.                                             *
+     * @return Die Zusammenfassung, die auch als letzte Zeile geschrieben wurde.                             *
+     * @throws IOException Wenn Ein- oder Ausgabe fehlschlagen.                                              *
+     *********************************************************************************************************
+     */
+    public PremiumStreamSummary calculate(InputStream input, boolean csv, OutputStream output) throws IOException {
+        var start = System.nanoTime();
+        var table = premiumFactorService.getTable();
+        var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long lines = 0;
+        long rejected = 0;
+        var lineNumber = 0;
+
+        for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank() || (csv && lines == 0 && isCsvHeader(line))) {
+                continue;
+            }
+            lines++;
+            PremiumBatchResult result;
+            try {
+                result = calculateService.calculateItem(table, lineNumber, csv ? parseCsv(line) : parseJson(line));
+            } catch (IOException | RuntimeException e) {
+                result = new PremiumBatchResult(lineNumber, null, List.of("Zeile konnte nicht gelesen werden."));
+            }
+            if (!result.getErrors().isEmpty()) {
+                rejected++;
+            }
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+            if (lines % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+
+        var summary = new PremiumStreamSummary(lines, lines - rejected, rejected, System.nanoTime() - start);
+        writer.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        writer.write('\n');
+        writer.flush();
+        logger.info("🚀 Stream-Berechnung: {} Zeilen ({} abgewiesen) in {} ms, {} Zeilen/s",
+                summary.getLines(), summary.getRejected(), summary.getDurationMs(), summary.getLinesPerSecond());
+        return summary;
+    }
+
+    private PremiumBatchItem parseJson(String line) throws IOException {
+        return objectMapper.readValue(line, PremiumBatchItem.class);
+    }
+
+    private static PremiumBatchItem parseCsv(String line) {
+        var values = line.split("[,;]", -1);
+        if (values.length != 3) {
+            throw new IllegalArgumentException("Erwartet werden drei Spalten");
+        }
+        return new PremiumBatchItem(parseLong(values[0]), parseInt(values[1]), blankToNull(values[2]));
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.toLowerCase().contains("vehicleid");
+    }
+
+    private static Long parseLong(String value) {
+        return value.isBlank() ? null : Long.valueOf(value.trim());
+    }
+
+    private static Integer parseInt(String value) {
+        return value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+
+    private static String blankToNull(String value) {
+        var trimmed = value.trim().replace("\"", "");
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
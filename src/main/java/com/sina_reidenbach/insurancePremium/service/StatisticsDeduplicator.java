@@ -0,0 +1,107 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Erkennt doppelte Statistik-Einträge im Speicher, ohne die Datenbank abzufragen.                           *
+ * Jeder Eintrag wird über einen 64-Bit-Hash aus Zeitpunkt, Postleitzahl und Fahrzeug identifiziert und in   *
+ * einem Zeitfenster (Bucket) abgelegt. Es werden nur die jüngsten insurance.statistics.dedup.buckets        *
+ * Fenster zu je insurance.statistics.dedup.bucket-seconds Sekunden vorgehalten; ältere werden verworfen.    *
+ * Einträge außerhalb des Fensters gelten als neu, die Eindeutigkeit sichert dann der Unique-Constraint      *
+ * der Tabelle Statistics ab.                                                                                *
+ *************************************************************************************************************
+ */
+@Service
+public class StatisticsDeduplicator {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Value("${insurance.statistics.dedup.bucket-seconds:60}")
+    private long bucketSeconds = 60;
+    @Value("${insurance.statistics.dedup.buckets:10}")
+    private int bucketCount = 10;
+
+    private final ConcurrentHashMap<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong newestBucket = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     *********************************************************************************************************
+     * Merkt sich einen Eintrag und prüft dabei, ob er bereits vorkam.                                       *
+     *                                                                                                       *
+     * @param dateTime Der Zeitpunkt der Berechnung.                                                         *
+     * @param postcode Die Postleitzahl.                                                                     *
+     * @param vehicleId Die ID des Fahrzeugs.                                                                *
+     * @return True, wenn der Eintrag neu ist; false, wenn er im betrachteten Zeitfenster bereits vorkam.    *
+     *********************************************************************************************************
+     */
+    public boolean markIfNew(LocalDateTime dateTime, String postcode, Long vehicleId) {
+        if (dateTime == null) {
+            return true;
+        }
+        var bucket = Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), Math.max(1, bucketSeconds));
+        var newest = advance(bucket);
+        if (bucket <= newest - bucketCount) {
+            return true;
+        }
+        return buckets.computeIfAbsent(bucket, key -> ConcurrentHashMap.newKeySet())
+                .add(hash(dateTime, postcode, vehicleId));
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die Anzahl der aktuell vorgehaltenen Einträge zurück.                                            *
+     *                                                                                                       *
+     * @return Die Anzahl der Einträge über alle Zeitfenster.                                                *
+     *********************************************************************************************************
+     */
+    public int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private long advance(long bucket) {
+        var newest = newestBucket.get();
+        while (bucket > newest) {
+            if (newestBucket.compareAndSet(newest, bucket)) {
+                var oldest = bucket - bucketCount;
+                buckets.keySet().removeIf(key -> key <= oldest);
+                return bucket;
+            }
+            newest = newestBucket.get();
+        }
+        return newest;
+    }
+
+    private static long hash(LocalDateTime dateTime, String postcode, Long vehicleId) {
+        var hash = FNV_OFFSET;
+        hash = mix(hash, dateTime.toEpochSecond(ZoneOffset.UTC));
+        hash = mix(hash, dateTime.getNano());
+        hash = mix(hash, postcode);
+        return vehicleId == null ? (hash ^ 0xff) * FNV_PRIME : mix(hash, vehicleId);
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xff) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ 0xfe) * FNV_PRIME;
+    }
+}
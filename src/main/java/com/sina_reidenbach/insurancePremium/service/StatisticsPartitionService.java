@@ -0,0 +1,184 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Verwaltet die zeitliche Partitionierung und die Aufbewahrungsdauer der Tabelle Statistics.                *
+ * Auf MySQL wird die Tabelle beim ersten Lauf nach TO_DAYS(date_time) partitioniert (täglich oder           *
+ * monatlich, siehe insurance.statistics.partition.period). Danach legt der tägliche Lauf die Partitionen    *
+ * für die nächsten insurance.statistics.partition.ahead Zeiträume an und entfernt Partitionen, die          *
+ * vollständig älter als insurance.statistics.retention.days sind, per DROP PARTITION statt DELETE.          *
+ * Auf anderen Datenbanken (z. B. H2) werden abgelaufene Einträge stattdessen gelöscht.                      *
+ *************************************************************************************************************
+ */
+@Service
+public class StatisticsPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsPartitionService.class);
+    private static final String TABLE = "statistics";
+    private static final String MAX_PARTITION = "pmax";
+    private static final long TO_DAYS_EPOCH_OFFSET = 719528;
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    /**
+     *********************************************************************************************************
+     * Zeitraum, den eine Partition abdeckt.                                                                 *
+     *********************************************************************************************************
+     */
+    public enum PartitionPeriod {
+        DAILY, MONTHLY;
+
+        LocalDate start(LocalDate date) {
+            return this == DAILY ? date : date.withDayOfMonth(1);
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == DAILY ? start.plusDays(1) : start.plusMonths(1);
+        }
+    }
+
+    record Partition(String name, LocalDate end) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${insurance.statistics.partition.period:MONTHLY}")
+    private PartitionPeriod period = PartitionPeriod.MONTHLY;
+    @Value("${insurance.statistics.partition.ahead:3}")
+    private int ahead = 3;
+    @Value("${insurance.statistics.retention.days:0}")
+    private int retentionDays = 0;
+
+    /**
+     *********************************************************************************************************
+     * Führt die Wartung beim Start und anschließend täglich aus (insurance.statistics.retention.cron).      *
+     *********************************************************************************************************
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${insurance.statistics.retention.cron:0 15 3 * * *}")
+    public void maintain() {
+        try {
+            maintain(LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Wartung der Statistik-Tabelle fehlgeschlagen: {}", e.getMessage());
+        }
+    }
+
+    void maintain(LocalDate today) {
+        var cutoff = retentionDays > 0 ? today.minusDays(retentionDays) : null;
+        if (!isMySql()) {
+            if (cutoff != null) {
+                var deleted = jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE date_time < ?", cutoff.atStartOfDay());
+                logger.info("🧹 {} Statistik-Einträge vor {} gelöscht", deleted, cutoff);
+            }
+            return;
+        }
+
+        var partitions = loadPartitions();
+        if (partitions.isEmpty()) {
+            partitionTable(today);
+            partitions = loadPartitions();
+        }
+        addPartitions(partitions, today);
+        if (cutoff != null) {
+            dropPartitions(partitions, cutoff);
+        }
+    }
+
+    private boolean isMySql() {
+        var product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+
+    private List<Partition> loadPartitions() {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), fromDays(rs.getString(2))), TABLE);
+    }
+
+    /*
+     * MySQL verlangt, dass jeder eindeutige Schlüssel die Partitionsspalte enthält. Der Primärschlüssel wird
+     * deshalb auf (id, date_time) erweitert; uk_statistics_entry enthält date_time bereits.
+     */
+    private void partitionTable(LocalDate today) {
+        var oldest = jdbcTemplate.queryForObject("SELECT MIN(date_time) FROM " + TABLE, Timestamp.class);
+        var first = period.start(oldest == null ? today : oldest.toLocalDateTime().toLocalDate());
+        var definitions = new ArrayList<String>();
+        for (var start = first; !start.isAfter(period.start(today)); start = period.next(start)) {
+            definitions.add(definition(start));
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE");
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, date_time)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE (TO_DAYS(date_time)) ("
+                + String.join(", ", definitions) + ")");
+        logger.info("🚀 Statistik-Tabelle in {} Partitionen ({}) aufgeteilt", definitions.size(), period);
+    }
+
+    private void addPartitions(List<Partition> partitions, LocalDate today) {
+        var lastEnd = partitions.stream().map(Partition::end).filter(end -> end != null)
+                .max(LocalDate::compareTo).orElse(period.start(today));
+        var target = period.start(today);
+        for (int i = 0; i < ahead; i++) {
+            target = period.next(target);
+        }
+        var definitions = new ArrayList<String>();
+        for (var start = lastEnd; !start.isAfter(target); start = period.next(start)) {
+            definitions.add(definition(start));
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                + String.join(", ", definitions) + ")");
+        logger.info("🚀 {} Statistik-Partitionen angelegt", definitions.size() - 1);
+    }
+
+    private void dropPartitions(List<Partition> partitions, LocalDate cutoff) {
+        var expired = partitions.stream()
+                .filter(partition -> partition.end() != null && !partition.end().isAfter(cutoff))
+                .map(Partition::name)
+                .collect(Collectors.joining(", "));
+        if (expired.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + expired);
+        logger.info("🧹 Statistik-Partitionen vor {} entfernt: {}", cutoff, expired);
+    }
+
+    private String definition(LocalDate start) {
+        return "PARTITION " + start.format(NAME_FORMAT) + " VALUES LESS THAN (" + toDays(period.next(start)) + ")";
+    }
+
+    static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+
+    static LocalDate fromDays(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(Long.parseLong(description.trim()) - TO_DAYS_EPOCH_OFFSET);
+    }
+}
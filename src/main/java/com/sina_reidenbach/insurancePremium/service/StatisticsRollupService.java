@@ -0,0 +1,256 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.dto.StatisticsRollup;
+import com.sina_reidenbach.insurancePremium.model.Statistics;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Verdichtet gespeicherte Statistik-Einträge laufend zu Kennzahlen je Minute, Stunde und Tag.               *
+ * Für jede Kombination aus Zeitraum, Region und Fahrzeug werden Anzahl, Summe, Minimum und Maximum der      *
+ * Prämien je Kilometerbereich (Grenzen aus insurance.statistics.rollup.km-edges) in der Tabelle             *
+ * statistics_rollup hochgezählt, sodass die Kennzahlen Neustarts überdauern und von allen Instanzen         *
+ * gemeinsam fortgeschrieben werden. Auswertungen lesen ausschließlich diese Tabelle und nie Statistics.     *
+ * Ältere Zeiträume werden gelöscht, sobald sie außerhalb der Aufbewahrung der jeweiligen Auflösung liegen.  *
+ *************************************************************************************************************
+ */
+@Service
+public class StatisticsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsRollupService.class);
+    private static final String UNKNOWN = "Unbekannt";
+    private static final String UPSERT = "INSERT INTO statistics_rollup (granularity, bucket_start, region, vehicle, "
+            + "km_bucket, entry_count, premium_sum, premium_min, premium_max) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE entry_count = entry_count + VALUES(entry_count), "
+            + "premium_sum = premium_sum + VALUES(premium_sum), premium_min = LEAST(premium_min, VALUES(premium_min)), "
+            + "premium_max = GREATEST(premium_max, VALUES(premium_max))";
+
+    /**
+     *********************************************************************************************************
+     * Auflösung der Kennzahlen und Anzahl der aufbewahrten Zeiträume                                        *
+     * (24 Stunden in Minuten, 30 Tage in Stunden, 400 Tage).                                                *
+     *********************************************************************************************************
+     */
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES, 24 * 60),
+        HOUR(ChronoUnit.HOURS, 30 * 24),
+        DAY(ChronoUnit.DAYS, 400);
+
+        private final ChronoUnit unit;
+        private final int retention;
+
+        Granularity(ChronoUnit unit, int retention) {
+            this.unit = unit;
+            this.retention = retention;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.truncatedTo(unit);
+        }
+    }
+
+    private record Key(Granularity granularity, LocalDateTime bucketStart, String region, String vehicle,
+                       int kmBucket) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::granularity)
+            .thenComparing(Key::bucketStart).thenComparing(Key::region).thenComparing(Key::vehicle)
+            .thenComparingInt(Key::kmBucket);
+
+    private static final class Delta {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void add(double premium) {
+            count++;
+            sum += premium;
+            min = Math.min(min, premium);
+            max = Math.max(max, premium);
+        }
+    }
+
+    @Autowired
+    private PremiumFactorService premiumFactorService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${insurance.statistics.rollup.km-edges:5000,10000,20000,50000}")
+    private int[] kmEdges = {5000, 10000, 20000, 50000};
+
+    private final Map<Granularity, AtomicReference<LocalDateTime>> newestBuckets = new EnumMap<>(Granularity.class);
+
+    public StatisticsRollupService() {
+        for (var granularity : Granularity.values()) {
+            newestBuckets.put(granularity, new AtomicReference<>(LocalDateTime.MIN));
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Zählt gespeicherte Statistik-Einträge in die Kennzahlen aller Auflösungen ein. Die Einträge werden    *
+     * zuerst im Speicher je Zeile zusammengefasst und dann in einem JDBC-Batch hochgezählt. Aufrufer        *
+     * übergeben nur Einträge, die bereits erfolgreich in die Tabelle Statistics geschrieben wurden.         *
+     * Fehler werden nur protokolliert, da der Eintrag selbst bereits gespeichert ist.                       *
+     *                                                                                                       *
+     * @param entries Die gespeicherten Einträge.                                                            *
+     *********************************************************************************************************
+     */
+    public void record(Collection<Statistics> entries) {
+        var table = premiumFactorService.getTable();
+        var deltas = new TreeMap<Key, Delta>(KEY_ORDER);
+        for (var entry : entries) {
+            if (entry.getDateTime() == null) {
+                continue;
+            }
+            var region = table.regionName(entry.getPostcode());
+            var vehicle = entry.getVehicleId() == null ? null : table.vehicleName(entry.getVehicleId());
+            var kmBucket = kmBucket(entry.getAnnokilometers());
+            for (var granularity : Granularity.values()) {
+                deltas.computeIfAbsent(new Key(granularity, granularity.truncate(entry.getDateTime()),
+                                region == null ? UNKNOWN : region, vehicle == null ? UNKNOWN : vehicle, kmBucket),
+                        key -> new Delta()).add(entry.getPremium());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, new ArrayList<>(deltas.entrySet()), deltas.size(), (statement, delta) -> {
+                statement.setString(1, delta.getKey().granularity().name());
+                statement.setTimestamp(2, Timestamp.valueOf(delta.getKey().bucketStart()));
+                statement.setString(3, delta.getKey().region());
+                statement.setString(4, delta.getKey().vehicle());
+                statement.setInt(5, delta.getKey().kmBucket());
+                statement.setLong(6, delta.getValue().count);
+                statement.setDouble(7, delta.getValue().sum);
+                statement.setDouble(8, delta.getValue().min);
+                statement.setDouble(9, delta.getValue().max);
+            });
+            for (var key : deltas.keySet()) {
+                advance(key.granularity(), key.bucketStart());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Statistik-Kennzahlen konnten nicht fortgeschrieben werden: {}", e.getMessage());
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Liefert die Kennzahlen eines Zeitraums, optional gefiltert nach Region und Fahrzeug.                  *
+     *                                                                                                       *
+     * @param granularity Die Auflösung.                                                                     *
+     * @param from Beginn des Zeitraums (einschließlich).                                                    *
+     * @param to Ende des Zeitraums (ausschließlich).                                                        *
+     * @param region Der Name der Region oder null für alle Regionen.                                        *
+     * @param vehicle Der Name des Fahrzeugs oder null für alle Fahrzeuge.                                   *
+     * @return Die Kennzahlen, sortiert nach Zeitraum, Region und Fahrzeug.                                  *
+     *********************************************************************************************************
+     */
+    public List<StatisticsRollup> query(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                        String region, String vehicle) {
+        var sql = new StringBuilder("SELECT bucket_start, region, vehicle, km_bucket, entry_count, premium_sum, "
+                + "premium_min, premium_max FROM statistics_rollup WHERE granularity = ? AND bucket_start >= ? "
+                + "AND bucket_start < ?");
+        var arguments = new ArrayList<Object>(List.of(granularity.name(), Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (region != null) {
+            sql.append(" AND region = ?");
+            arguments.add(region);
+        }
+        if (vehicle != null) {
+            sql.append(" AND vehicle = ?");
+            arguments.add(vehicle);
+        }
+        sql.append(" ORDER BY bucket_start, region, vehicle, km_bucket");
+
+        var labels = kmLabels();
+        var rollups = new ArrayList<StatisticsRollup>();
+        var current = new Object() {
+            Key key;
+            Delta total;
+            long[] histogram;
+
+            void close() {
+                if (key != null) {
+                    rollups.add(toRollup(granularity, key, total, histogram, labels));
+                }
+            }
+        };
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) resultSet -> {
+            var key = new Key(granularity, resultSet.getTimestamp("bucket_start").toLocalDateTime(),
+                    resultSet.getString("region"), resultSet.getString("vehicle"), 0);
+            if (!key.equals(current.key)) {
+                current.close();
+                current.key = key;
+                current.total = new Delta();
+                current.histogram = new long[labels.size()];
+            }
+            var count = resultSet.getLong("entry_count");
+            current.total.count += count;
+            current.total.sum += resultSet.getDouble("premium_sum");
+            current.total.min = Math.min(current.total.min, resultSet.getDouble("premium_min"));
+            current.total.max = Math.max(current.total.max, resultSet.getDouble("premium_max"));
+            current.histogram[Math.min(resultSet.getInt("km_bucket"), labels.size() - 1)] += count;
+        }, arguments.toArray());
+        current.close();
+        return rollups;
+    }
+
+    private void advance(Granularity granularity, LocalDateTime bucketStart) {
+        var newest = newestBuckets.get(granularity);
+        for (var current = newest.get(); bucketStart.isAfter(current); current = newest.get()) {
+            if (newest.compareAndSet(current, bucketStart)) {
+                var oldest = bucketStart.minus(granularity.retention, granularity.unit);
+                jdbcTemplate.update("DELETE FROM statistics_rollup WHERE granularity = ? AND bucket_start <= ?",
+                        granularity.name(), Timestamp.valueOf(oldest));
+                return;
+            }
+        }
+    }
+
+    private int kmBucket(int km) {
+        for (int i = 0; i < kmEdges.length; i++) {
+            if (km <= kmEdges[i]) {
+                return i;
+            }
+        }
+        return kmEdges.length;
+    }
+
+    private List<String> kmLabels() {
+        var labels = new ArrayList<String>(kmEdges.length + 1);
+        var lower = 0;
+        for (var edge : kmEdges) {
+            labels.add(lower + "-" + edge);
+            lower = edge + 1;
+        }
+        labels.add(">" + (kmEdges.length == 0 ? 0 : kmEdges[kmEdges.length - 1]));
+        return labels;
+    }
+
+    private static StatisticsRollup toRollup(Granularity granularity, Key key, Delta total, long[] histogram,
+                                             List<String> labels) {
+        var kmHistogram = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < labels.size(); i++) {
+            kmHistogram.put(labels.get(i), histogram[i]);
+        }
+        return new StatisticsRollup(granularity.name(), key.bucketStart(), key.region(), key.vehicle(),
+                total.count, total.sum, total.min, total.max, kmHistogram);
+    }
+}
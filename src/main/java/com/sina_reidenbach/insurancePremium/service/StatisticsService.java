@@ -3,10 +3,13 @@ package com.sina_reidenbach.insurancePremium.service;
 import com.sina_reidenbach.insurancePremium.model.Statistics;
 import com.sina_reidenbach.insurancePremium.repository.StatisticsRepository;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,6 +22,15 @@ import org.springframework.stereotype.Service;
 public class StatisticsService {
     @Autowired
     private StatisticsRepository statisticsRepository;
+    @Autowired
+    private StatisticsWriteBuffer statisticsWriteBuffer;
+    @Autowired
+    private StatisticsDeduplicator statisticsDeduplicator;
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+
+    @Value("${insurance.statistics.async:false}")
+    private boolean async = false;
 
     private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
 
@@ -26,31 +38,42 @@ public class StatisticsService {
      **********************************************************************************************************
      * Speichert Statistik, wenn keine Duplikate für das gegebene Datum, Postleitzahl, Fahrzeug existieren.   *
      * und nur, wenn eine gültige IP-Adresse vorhanden ist.                                                   *
+     * Ist insurance.statistics.async aktiv, wird der Eintrag nur an den {@link StatisticsWriteBuffer}        *
+     * übergeben und gesammelt im Hintergrund gespeichert. Die Duplikatprüfung erfolgt im Speicher über den   *
+     * {@link StatisticsDeduplicator}; der Unique-Constraint der Tabelle dient als Absicherung.               *
+     * Erst nach dem erfolgreichen Speichern wird der Eintrag im {@link StatisticsRollupService} verdichtet.  *
      * @param dateTime Der Zeitpunkt, an dem die Statistik gespeichert wurde.                                 *
      * @param postcode Die Postleitzahl, die mit der Statistik verknüpft ist.                                 *
-     * @param vehicleName Der Name des Fahrzeugs, für das die Statistik gespeichert wird.                     *
+     * @param vehicleId Die ID des Fahrzeugs, für das die Statistik gespeichert wird.                         *
      * @param km Die Anzahl der gefahrenen Kilometer.                                                         *
      * @param premium Der berechnete Premiumbetrag.                                                           *
      * @param ipAddress Die IP-Adresse des Nutzers, die zur Validierung erforderlich ist.                     *
      * @throws IllegalArgumentException Wenn die IP-Adresse ungültig, oder die Eingabedaten unvollständig sind*
      **********************************************************************************************************
      */
-    public void saveStatistics(LocalDateTime dateTime, String postcode, String vehicleName, int km, double premium, String ipAddress) {
+    public void saveStatistics(LocalDateTime dateTime, String postcode, Long vehicleId, int km, double premium, String ipAddress) {
         if (ipAddress == null || ipAddress.trim().isEmpty()) {
             logger.info("[INFO] Keine gültige IP-Adresse gefunden. Statistik wird nicht gespeichert.");
             return;
         }
 
-        var existingEntry = statisticsRepository.findByDateTimeAndPostcodeAndVehicle(dateTime, postcode, vehicleName);
-        if (existingEntry.isPresent()) {
-            logger.info("Duplicate entry found for vehicle: {}, postcode: {}, dateTime: {}", vehicleName, postcode, dateTime);
+        if (!statisticsDeduplicator.markIfNew(dateTime, postcode, vehicleId)) {
+            logger.info("Duplicate entry found for vehicle: {}, postcode: {}, dateTime: {}", vehicleId, postcode, dateTime);
+            return;
+        }
+
+        if (async) {
+            statisticsWriteBuffer.offer(new Statistics(dateTime, postcode, vehicleId, km, premium, ipAddress));
             return;
         }
 
-        var entity = new Statistics(dateTime, postcode, vehicleName, km, premium, ipAddress);
+        var entity = new Statistics(dateTime, postcode, vehicleId, km, premium, ipAddress);
         try {
             statisticsRepository.save(entity);
             logger.info("[INFO] Statistik erfolgreich gespeichert: {}", entity);
+            statisticsRollupService.record(List.of(entity));
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Duplicate entry found for vehicle: {}, postcode: {}, dateTime: {}", vehicleId, postcode, dateTime);
         } catch (Exception e) {
             logger.warn("[WARNUNG] Fehler beim Speichern der Statistik: {}", e.getMessage());
         }
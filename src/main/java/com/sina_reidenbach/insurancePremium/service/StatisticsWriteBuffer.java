@@ -0,0 +1,317 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.dto.StatisticsBufferMetrics;
+import com.sina_reidenbach.insurancePremium.model.Statistics;
+import com.sina_reidenbach.insurancePremium.repository.StatisticsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ *************************************************************************************************************
+ * Puffert Statistik-Einträge und schreibt sie im Hintergrund gesammelt in die Datenbank (Write-Behind).     *
+ * Die Einträge landen in einer begrenzten Warteschlange; ein Hintergrund-Thread schreibt sie, sobald        *
+ * insurance.statistics.buffer.batch-size Einträge vorliegen oder das Intervall                              *
+ * insurance.statistics.buffer.flush-interval-ms abgelaufen ist. Ist die Warteschlange voll, entscheidet     *
+ * insurance.statistics.buffer.overflow: DROP verwirft den Eintrag, BLOCK wartet auf freien Platz und        *
+ * SPILL schreibt ihn in eine Datei, die später nachgeladen wird.                                            *
+ *************************************************************************************************************
+ */
+@Service
+public class StatisticsWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsWriteBuffer.class);
+    private static final String NULL_VALUE = "\\N";
+
+    /**
+     *********************************************************************************************************
+     * Verhalten bei voller Warteschlange.                                                                   *
+     *********************************************************************************************************
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK, SPILL
+    }
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+
+    @Value("${insurance.statistics.async:false}")
+    private boolean async = false;
+    @Value("${insurance.statistics.buffer.capacity:10000}")
+    private int capacity = 10000;
+    @Value("${insurance.statistics.buffer.batch-size:500}")
+    private int batchSize = 500;
+    @Value("${insurance.statistics.buffer.flush-interval-ms:1000}")
+    private long flushIntervalMs = 1000;
+    @Value("${insurance.statistics.buffer.overflow:DROP}")
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    @Value("${insurance.statistics.buffer.spill-path:}")
+    private String spillPath = "";
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private BlockingQueue<Statistics> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    /**
+     *********************************************************************************************************
+     * Startet den Puffer beim Hochfahren, sofern insurance.statistics.async aktiv ist. Andernfalls          *
+     * speichert StatisticsService direkt, und es werden weder Warteschlange noch Hintergrund-Thread         *
+     * angelegt.                                                                                             *
+     *********************************************************************************************************
+     */
+    @PostConstruct
+    public void init() {
+        if (async) {
+            start();
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Legt die Warteschlange an und startet den Hintergrund-Thread.                                         *
+     *********************************************************************************************************
+     */
+    public void start() {
+        if (queue == null) {
+            queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        }
+        running = true;
+        flusher = new Thread(this::run, "statistics-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     *********************************************************************************************************
+     * Beendet den Hintergrund-Thread und schreibt alle noch gepufferten Einträge.                           *
+     *********************************************************************************************************
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     *********************************************************************************************************
+     * Übernimmt einen Eintrag in den Puffer, ohne auf die Datenbank zu warten.                              *
+     *                                                                                                       *
+     * @param entry Der zu speichernde Eintrag.                                                              *
+     * @return True, wenn der Eintrag gepuffert oder ausgelagert wurde; false, wenn er verworfen wurde.      *
+     *********************************************************************************************************
+     */
+    public boolean offer(Statistics entry) {
+        if (queue.offer(entry)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(entry);
+                    accepted.incrementAndGet();
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case SPILL -> {
+                if (spill(entry)) {
+                    accepted.incrementAndGet();
+                    return true;
+                }
+            }
+            default -> {
+            }
+        }
+        if (dropped.incrementAndGet() % 1000 == 1) {
+            logger.warn("⚠️ Statistik-Puffer voll, bisher {} Einträge verworfen", dropped.get());
+        }
+        return false;
+    }
+
+    /**
+     *********************************************************************************************************
+     * Gibt die aktuellen Kennzahlen des Puffers zurück.                                                     *
+     *                                                                                                       *
+     * @return Warteschlangentiefe, Kapazität und die Zähler für angenommene, verworfene, ausgelagerte,      *
+     *         geschriebene, doppelte und fehlgeschlagene Einträge.                                          *
+     *********************************************************************************************************
+     */
+    public StatisticsBufferMetrics getMetrics() {
+        return new StatisticsBufferMetrics(queue == null ? 0 : queue.size(), capacity, overflowPolicy.name(), accepted.get(),
+                dropped.get(), spilled.get(), written.get(), duplicates.get(), failed.get());
+    }
+
+    private void run() {
+        var batch = new ArrayList<Statistics>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    var remaining = deadline - System.nanoTime();
+                    var entry = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (entry == null) {
+                        break;
+                    }
+                    batch.add(entry);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            flush(batch);
+            if (queue.isEmpty()) {
+                replaySpill();
+            }
+        }
+        replaySpill();
+    }
+
+    private void flush(List<Statistics> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            statisticsRepository.saveAll(batch);
+            written.addAndGet(batch.size());
+            logger.debug("Statistik-Puffer: {} Einträge gespeichert", batch.size());
+            statisticsRollupService.record(batch);
+        } catch (DataIntegrityViolationException e) {
+            saveIndividually(batch);
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            logger.warn("[WARNUNG] Fehler beim Speichern der Statistik: {}", e.getMessage());
+        }
+        batch.clear();
+    }
+
+    /*
+     * Der Unique-Constraint hat einen Eintrag des Stapels abgewiesen, der die Duplikatprüfung im Speicher
+     * passiert hat (z. B. nach einem Neustart). Die Einträge werden einzeln gespeichert, Duplikate übersprungen;
+     * nur die gespeicherten Einträge fließen in die Kennzahlen ein.
+     */
+    private void saveIndividually(List<Statistics> batch) {
+        var saved = new ArrayList<Statistics>(batch.size());
+        for (var entry : batch) {
+            entry.setId(null);
+            try {
+                statisticsRepository.save(entry);
+                written.incrementAndGet();
+                saved.add(entry);
+            } catch (DataIntegrityViolationException e) {
+                duplicates.incrementAndGet();
+                logger.debug("Duplicate entry skipped for vehicle: {}, postcode: {}, dateTime: {}",
+                        entry.getVehicleId(), entry.getPostcode(), entry.getDateTime());
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.warn("[WARNUNG] Fehler beim Speichern der Statistik: {}", e.getMessage());
+            }
+        }
+        statisticsRollupService.record(saved);
+    }
+
+    private synchronized boolean spill(Statistics entry) {
+        if (spillPath.isBlank()) {
+            return false;
+        }
+        var line = String.join("\t", entry.getDateTime().toString(), encode(entry.getPostcode()),
+                encode(Objects.toString(entry.getVehicleId(), null)), String.valueOf(entry.getAnnokilometers()),
+                String.valueOf(entry.getPremium()), encode(entry.getIpAddress()));
+        try {
+            var path = Path.of(spillPath);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, line + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            spilled.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            logger.warn("⚠️ Statistik konnte nicht ausgelagert werden: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void replaySpill() {
+        if (spillPath.isBlank()) {
+            return;
+        }
+        var replay = Path.of(spillPath + ".replay");
+        synchronized (this) {
+            if (!Files.exists(replay)) {
+                if (!Files.exists(Path.of(spillPath))) {
+                    return;
+                }
+                try {
+                    Files.move(Path.of(spillPath), replay);
+                } catch (IOException e) {
+                    logger.warn("⚠️ Ausgelagerte Statistik konnte nicht übernommen werden: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+        var batch = new ArrayList<Statistics>(batchSize);
+        try (var reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+            for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                var values = line.split("\t", -1);
+                if (values.length != 6) {
+                    continue;
+                }
+                try {
+                    var vehicleId = decode(values[2]);
+                    batch.add(new Statistics(LocalDateTime.parse(values[0]), decode(values[1]),
+                            vehicleId == null ? null : Long.valueOf(vehicleId), Integer.parseInt(values[3]),
+                            Double.parseDouble(values[4]), decode(values[5])));
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.warn("⚠️ Ungültige Zeile in ausgelagerter Statistik übersprungen: {}", e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+            }
+            flush(batch);
+            Files.delete(replay);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("⚠️ Ausgelagerte Statistik konnte nicht gelesen werden: {}", e.getMessage());
+        }
+    }
+
+    private static String encode(String value) {
+        return value == null ? NULL_VALUE : value.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    private static String decode(String value) {
+        return NULL_VALUE.equals(value) ? null : value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.model.City;
+import com.sina_reidenbach.insurancePremium.model.Postcode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPostcodeLookupTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ReferenceDataSnapshot snapshot;
+    private Path path;
+    private MappedPostcodeLookup lookup;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = new ReferenceDataSnapshot(0L, List.of(), List.of(),
+                List.of(new ReferenceDataSnapshot.RegionRow(10L, "Nordrhein-Westfalen", 1.5),
+                        new ReferenceDataSnapshot.RegionRow(11L, "Baden-Württemberg", 1.0)),
+                List.of(new ReferenceDataSnapshot.CityRow(20L, "Leverkusen", 10L),
+                        new ReferenceDataSnapshot.CityRow(21L, "Breisach am Rhein", 11L)),
+                List.of(new ReferenceDataSnapshot.PostcodeRow(30L, "51373", 20L, 10L),
+                        new ReferenceDataSnapshot.PostcodeRow(31L, "79206", 21L, 11L),
+                        new ReferenceDataSnapshot.PostcodeRow(32L, "79206", 20L, 10L),
+                        new ReferenceDataSnapshot.PostcodeRow(33L, "51379", 20L, 11L)));
+        path = tempDir.resolve("postcode-lookup.bin");
+        assertTrue(MappedPostcodeLookup.write(path, snapshot));
+        lookup = MappedPostcodeLookup.open(path);
+    }
+
+    @Test
+    void testFindPostcode() {
+        Postcode postcode = lookup.findPostcode("51373").orElseThrow();
+
+        assertEquals(30L, postcode.getId());
+        assertEquals("51373", postcode.getPostcodeValue());
+        assertEquals("Leverkusen", postcode.getCity().getName());
+        assertEquals("Nordrhein-Westfalen", postcode.getRegion().getName());
+    }
+
+    @Test
+    void testFindCityByPostcode_FirstEntryWins() {
+        City city = lookup.findCityByPostcode("79206").orElseThrow();
+
+        assertEquals(21L, city.getId());
+        assertEquals("Breisach am Rhein", city.getName());
+        assertEquals("Baden-Württemberg", city.getRegion().getName());
+    }
+
+    @Test
+    void testRegionFactor() {
+        assertEquals(1.5, lookup.regionFactor("51373"));
+        assertEquals(1.0, lookup.regionFactor("79206"));
+        assertTrue(Double.isNaN(lookup.regionFactor("99999")));
+        assertTrue(Double.isNaN(lookup.regionFactor("abc")));
+    }
+
+    @Test
+    void testRegion_ResolvedViaCity() {
+        Postcode postcode = lookup.findPostcode("51379").orElseThrow();
+
+        assertEquals("Leverkusen", postcode.getCity().getName());
+        assertEquals("Nordrhein-Westfalen", postcode.getRegion().getName());
+        assertEquals(1.5, lookup.regionFactor("51379"));
+    }
+
+    @Test
+    void testUnknownPostcode() {
+        assertTrue(lookup.findPostcode("12345").isEmpty());
+        assertTrue(lookup.findCityByPostcode(null).isEmpty());
+    }
+
+    @Test
+    void testWrite_ReusesCurrentFile() throws IOException {
+        var fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+
+        assertFalse(MappedPostcodeLookup.write(path, snapshot));
+        assertEquals(fileKey, Files.readAttributes(path, BasicFileAttributes.class).fileKey());
+    }
+
+    @Test
+    void testWrite_ReplacesStaleFile() throws IOException {
+        var changed = new ReferenceDataSnapshot(0L, List.of(), List.of(),
+                List.of(new ReferenceDataSnapshot.RegionRow(10L, "Nordrhein-Westfalen", 2.0)),
+                List.of(new ReferenceDataSnapshot.CityRow(20L, "Leverkusen", 10L)),
+                List.of(new ReferenceDataSnapshot.PostcodeRow(30L, "51373", 20L, 10L)));
+
+        assertTrue(MappedPostcodeLookup.write(path, changed));
+        var reopened = MappedPostcodeLookup.open(path);
+        assertEquals(2.0, reopened.regionFactor("51373"));
+        assertTrue(reopened.findPostcode("79206").isEmpty());
+    }
+
+    @Test
+    void testOpen_InvalidFile() throws IOException {
+        var path = tempDir.resolve("invalid.bin");
+        Files.writeString(path, "keine Nachschlagedatei");
+
+        assertThrows(IOException.class, () -> MappedPostcodeLookup.open(path));
+    }
+}
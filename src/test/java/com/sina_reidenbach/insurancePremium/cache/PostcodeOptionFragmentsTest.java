@@ -0,0 +1,46 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostcodeOptionFragmentsTest {
+
+    private final PostcodePrefixIndex index = new PostcodePrefixIndex(new int[]{1067, 10115, 10117, 51373});
+    private final PostcodeOptionFragments fragments = new PostcodeOptionFragments(index, 50);
+
+    @Test
+    void testRender_PrecomputedPrefix() {
+        PostcodeOptions options = fragments.render("101");
+
+        assertEquals("<option value=\"10115\">10115</option><option value=\"10117\">10117</option>", options.html());
+        assertSame(options, fragments.render("101"));
+    }
+
+    @Test
+    void testRender_LongPrefix() {
+        assertEquals("<option value=\"51373\">51373</option>", fragments.render("5137").html());
+        assertEquals("<option value=\"01067\">01067</option>", fragments.render("01067").html());
+    }
+
+    @Test
+    void testRender_NoInputAndNoResults() {
+        assertSame(PostcodeOptionFragments.NO_INPUT, fragments.render(null));
+        assertSame(PostcodeOptionFragments.NO_INPUT, fragments.render("  "));
+        assertSame(PostcodeOptionFragments.NO_RESULTS, fragments.render("9"));
+        assertSame(PostcodeOptionFragments.NO_RESULTS, fragments.render("ab"));
+        assertSame(PostcodeOptionFragments.NO_RESULTS, fragments.render("99999"));
+    }
+
+    @Test
+    void testETagDependsOnContent() {
+        assertEquals(fragments.render("1011").etag(), fragments.render("101").etag());
+        assertNotEquals(fragments.render("5").etag(), fragments.render("1").etag());
+    }
+
+    @Test
+    void testIsBuiltFrom() {
+        assertTrue(fragments.isBuiltFrom(index, 50));
+        assertFalse(fragments.isBuiltFrom(index, 10));
+        assertFalse(fragments.isBuiltFrom(new PostcodePrefixIndex(new int[0]), 50));
+    }
+}
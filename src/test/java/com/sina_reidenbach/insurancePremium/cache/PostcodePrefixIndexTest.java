@@ -0,0 +1,49 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostcodePrefixIndexTest {
+
+    private final PostcodePrefixIndex index = new PostcodePrefixIndex(new int[]{1067, 1069, 10115, 10117, 10178, 51373, 99998});
+
+    @Test
+    void testFindByPrefix() {
+        assertEquals(List.of("10115", "10117"), index.findByPrefix("1011", 50));
+        assertEquals(List.of("10115", "10117", "10178"), index.findByPrefix("101", 50));
+        assertEquals(List.of("51373"), index.findByPrefix("51373", 50));
+    }
+
+    @Test
+    void testFindByPrefix_LeadingZero() {
+        assertEquals(List.of("01067", "01069"), index.findByPrefix("0", 50));
+        assertEquals(List.of("01067"), index.findByPrefix("01067", 50));
+    }
+
+    @Test
+    void testFindByPrefix_Limit() {
+        assertEquals(List.of("01067", "01069", "10115"), index.findByPrefix("", 3));
+        assertEquals(List.of("10115"), index.findByPrefix("1", 1));
+        assertEquals(7, index.findByPrefix("", Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void testFindByPrefix_NoMatch() {
+        assertTrue(index.findByPrefix("2", 50).isEmpty());
+        assertTrue(index.findByPrefix("9999", 50).isEmpty());
+    }
+
+    @Test
+    void testFindByPrefix_InvalidInput() {
+        assertTrue(index.findByPrefix(null, 50).isEmpty());
+        assertTrue(index.findByPrefix("1a", 50).isEmpty());
+        assertTrue(index.findByPrefix("123456", 50).isEmpty());
+        assertTrue(index.findByPrefix("1", 0).isEmpty());
+    }
+
+    @Test
+    void testResultIsUnmodifiable() {
+        assertThrows(UnsupportedOperationException.class, () -> index.findByPrefix("1", 50).set(0, "00000"));
+    }
+}
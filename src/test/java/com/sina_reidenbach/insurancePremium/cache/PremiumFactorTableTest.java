@@ -0,0 +1,125 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.model.Anno_Kilometers;
+import com.sina_reidenbach.insurancePremium.model.Region;
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PremiumFactorTableTest {
+
+    private PremiumFactorTable table;
+
+    @BeforeEach
+    void setUp() {
+        List<Vehicle> vehicles = List.of(
+                new Vehicle(1L, "Pkw Kraftstoff", 1.5),
+                new Vehicle(14L, "Geländewagen (SUV)", 1.5),
+                new Vehicle(3L, "Motorrad", 2.0));
+        List<Anno_Kilometers> annoKilometers = List.of(
+                new Anno_Kilometers(4L, 20001, Integer.MAX_VALUE, 2.0),
+                new Anno_Kilometers(1L, 0, 5000, 0.5),
+                new Anno_Kilometers(3L, 10001, 20000, 1.5),
+                new Anno_Kilometers(2L, 5001, 10000, 1.0));
+        List<Region> regions = List.of(
+                new Region(10L, "Nordrhein-Westfalen", 1.5),
+                new Region(11L, "Berlin", 2.0));
+        List<Object[]> postcodes = List.of(
+                new Object[]{"51373", 10L},
+                new Object[]{"10115", 11L});
+
+        table = PremiumFactorTable.of(vehicles, annoKilometers, regions, postcodes);
+    }
+
+    @Test
+    void testVehicleFactor() {
+        assertEquals(1.5, table.vehicleFactor(14L));
+        assertEquals(2.0, table.vehicleFactor(3L));
+        assertEquals("Motorrad", table.vehicleName(3L));
+    }
+
+    @Test
+    void testVehicleFactor_UnknownVehicle() {
+        assertTrue(Double.isNaN(table.vehicleFactor(2L)));
+        assertTrue(Double.isNaN(table.vehicleFactor(999L)));
+        assertTrue(Double.isNaN(table.vehicleFactor(-1L)));
+        assertNull(table.vehicleName(999L));
+    }
+
+    @Test
+    void testFindKmBand() {
+        assertEquals(0.5, table.kmFactor(table.findKmBand(2000, 2000)));
+        assertEquals(1.0, table.kmFactor(table.findKmBand(5001, 5001)));
+        assertEquals(1.5, table.kmFactor(table.findKmBand(20000, 20000)));
+        assertEquals(2.0, table.kmFactor(table.findKmBand(Integer.MAX_VALUE, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testFindKmBand_NotFound() {
+        assertEquals(-1, table.findKmBand(-10, -10));
+        assertEquals(-1, table.findKmBand(4000, 6000));
+    }
+
+    @Test
+    void testRegionFactor() {
+        assertEquals(1.5, table.regionFactor("51373"));
+        assertEquals(2.0, table.regionFactor("10115"));
+        assertTrue(Double.isNaN(table.regionFactor("99999")));
+        assertTrue(Double.isNaN(table.regionFactor(null)));
+    }
+
+    @Test
+    void testRegionName() {
+        assertEquals("Nordrhein-Westfalen", table.regionName("51373"));
+        assertEquals("Berlin", table.regionName("10115"));
+        assertNull(table.regionName("99999"));
+    }
+
+    @Test
+    void testResolve() {
+        QuoteContext context = table.resolve(14L, 2000, "51373");
+
+        assertEquals("Nordrhein-Westfalen", context.regionName());
+        assertEquals("Geländewagen (SUV)", context.vehicleName());
+        assertTrue(context.hasRegion() && context.hasVehicle() && context.hasKmBand());
+        assertEquals(0.5 * 1.5 * 1.5, context.premiumFactor());
+    }
+
+    @Test
+    void testResolve_Unknown() {
+        QuoteContext context = table.resolve(999L, -5, "99999");
+
+        assertNull(context.regionName());
+        assertNull(context.vehicleName());
+        assertFalse(context.hasRegion() || context.hasVehicle() || context.hasKmBand());
+        assertTrue(Double.isNaN(context.premiumFactor()));
+        assertFalse(table.resolve(null, null, null).hasVehicle());
+    }
+
+    @Test
+    void testContainsPostcode() {
+        assertTrue(table.containsPostcode("51373"));
+        assertFalse(table.containsPostcode("51374"));
+        assertFalse(table.containsPostcode("5137"));
+        assertEquals(2, table.getPostcodeCount());
+    }
+
+    @Test
+    void testPostcodeSlot() {
+        assertEquals(1067, PremiumFactorTable.postcodeSlot("01067"));
+        assertEquals(99998, PremiumFactorTable.postcodeSlot("99998"));
+        assertEquals(-1, PremiumFactorTable.postcodeSlot("1067"));
+        assertEquals(-1, PremiumFactorTable.postcodeSlot("123456"));
+        assertEquals(-1, PremiumFactorTable.postcodeSlot("12a45"));
+        assertEquals(-1, PremiumFactorTable.postcodeSlot(null));
+    }
+
+    @Test
+    void testEmptyTable() {
+        assertTrue(PremiumFactorTable.EMPTY.isEmpty());
+        assertFalse(table.isEmpty());
+        assertEquals(-1, PremiumFactorTable.EMPTY.findKmBand(1000, 1000));
+    }
+}
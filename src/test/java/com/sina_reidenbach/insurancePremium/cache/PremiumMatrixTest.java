@@ -0,0 +1,68 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.dto.PremiumMatrixResponse;
+import com.sina_reidenbach.insurancePremium.model.Anno_Kilometers;
+import com.sina_reidenbach.insurancePremium.model.Region;
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PremiumMatrixTest {
+
+    private PremiumFactorTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = PremiumFactorTable.of(
+                List.of(new Vehicle(1L, "Pkw Kraftstoff", 1.5), new Vehicle(3L, "Motorrad", 2.0)),
+                List.of(new Anno_Kilometers(1L, 0, 5000, 0.5), new Anno_Kilometers(2L, 5001, 10000, 1.0)),
+                List.of(new Region(10L, "Nordrhein-Westfalen", 1.5), new Region(11L, "Berlin", 2.0)),
+                List.of(new Object[]{"51373", 10L}, new Object[]{"10115", 11L}));
+    }
+
+    @Test
+    void testPremiumMatchesFactors() {
+        var matrix = PremiumMatrix.of(table, 500);
+
+        for (String postcode : List.of("51373", "10115")) {
+            for (int km : List.of(2000, 8000)) {
+                var context = table.resolve(3L, km, postcode);
+                assertEquals(context.premiumFactor() * 500,
+                        matrix.premium(3L, context.kmBand(), context.regionIndex()));
+            }
+        }
+        assertEquals(0.5 * 2.0 * 2.0 * 500, matrix.premium(3L, 0, table.resolve(3L, 1, "10115").regionIndex()));
+    }
+
+    @Test
+    void testPremiumOutsideTable() {
+        var matrix = PremiumMatrix.of(table, 500);
+
+        assertTrue(Double.isNaN(matrix.premium(2L, 0, 0)));
+        assertTrue(Double.isNaN(matrix.premium(99L, 0, 0)));
+        assertTrue(Double.isNaN(matrix.premium(1L, 2, 0)));
+        assertTrue(Double.isNaN(matrix.premium(1L, 0, -1)));
+    }
+
+    @Test
+    void testIsFor() {
+        var matrix = PremiumMatrix.of(table, 500);
+
+        assertTrue(matrix.isFor(table, 500));
+        assertFalse(matrix.isFor(table, 600));
+        assertFalse(matrix.isFor(PremiumFactorTable.EMPTY, 500));
+    }
+
+    @Test
+    void testResponse() {
+        var response = PremiumMatrixResponse.of(PremiumMatrix.of(table, 500));
+
+        assertEquals(List.of(new PremiumMatrixResponse.VehicleEntry(1L, "Pkw Kraftstoff"),
+                new PremiumMatrixResponse.VehicleEntry(3L, "Motorrad")), response.vehicles());
+        assertEquals(2, response.kmBands().size());
+        assertEquals(List.of("Nordrhein-Westfalen", "Berlin"), response.regions());
+        assertEquals(0.5 * 2.0 * 2.0 * 500, response.premiums()[1][0][1]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        var snapshot = new ReferenceDataSnapshot(42L,
+                List.of(new ReferenceDataSnapshot.AnnoKilometersRow(1L, 0, 5000, 0.5)),
+                List.of(new ReferenceDataSnapshot.VehicleRow(14L, "Geländewagen (SUV)", 1.5)),
+                List.of(new ReferenceDataSnapshot.RegionRow(10L, "Nordrhein-Westfalen", 1.5)),
+                List.of(new ReferenceDataSnapshot.CityRow(7L, "Leverkusen", 10L)),
+                List.of(new ReferenceDataSnapshot.PostcodeRow(3L, "51373", 7L, 10L)));
+        var path = tempDir.resolve("snapshot").resolve("reference-data.snapshot");
+
+        snapshot.write(path);
+        var result = ReferenceDataSnapshot.read(path);
+
+        assertEquals(snapshot, result);
+    }
+
+    @Test
+    void testRead_InvalidFile() throws IOException {
+        var path = tempDir.resolve("invalid.snapshot");
+        Files.writeString(path, "keine Momentaufnahme");
+
+        assertThrows(IOException.class, () -> ReferenceDataSnapshot.read(path));
+    }
+
+    @Test
+    void testRead_TruncatedFile() throws IOException {
+        var snapshot = new ReferenceDataSnapshot(1L, List.of(), List.of(),
+                List.of(new ReferenceDataSnapshot.RegionRow(1L, "Berlin", 2.0)), List.of(), List.of());
+        var path = tempDir.resolve("truncated.snapshot");
+        snapshot.write(path);
+        var bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> ReferenceDataSnapshot.read(path));
+    }
+}
@@ -0,0 +1,32 @@
+package com.sina_reidenbach.insurancePremium.cache;
+
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleOptionFragmentsTest {
+
+    private final VehicleOptionFragments fragments = new VehicleOptionFragments(List.of(
+            new Vehicle(14L, "Geländewagen (SUV)", 1.5),
+            new Vehicle(3L, "Motorrad <125cm³>", 2.0)));
+
+    @Test
+    void testRender_WithoutSelection() {
+        assertEquals("<option value=\"14\">Gel&auml;ndewagen (SUV)</option>"
+                + "<option value=\"3\">Motorrad &lt;125cm&sup3;&gt;</option>", fragments.render(null));
+        assertSame(fragments.render(null), fragments.render(999L));
+    }
+
+    @Test
+    void testRender_WithSelection() {
+        assertEquals("<option value=\"14\">Gel&auml;ndewagen (SUV)</option>"
+                + "<option value=\"3\" selected=\"selected\">Motorrad &lt;125cm&sup3;&gt;</option>", fragments.render(3L));
+        assertSame(fragments.render(14L), fragments.render(14L));
+    }
+
+    @Test
+    void testRender_EmptyList() {
+        assertEquals("", new VehicleOptionFragments(List.of()).render(1L));
+    }
+}
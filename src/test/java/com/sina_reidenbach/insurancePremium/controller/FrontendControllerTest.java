@@ -1,6 +1,10 @@
 package com.sina_reidenbach.insurancePremium.controller;
 
 import com.sina_reidenbach.insurancePremium.InsurancePremiumApplication;
+import com.sina_reidenbach.insurancePremium.cache.PostcodeOptions;
+import com.sina_reidenbach.insurancePremium.cache.QuoteContext;
+import com.sina_reidenbach.insurancePremium.dto.HomePageModel;
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuote;
 import com.sina_reidenbach.insurancePremium.dto.PremiumResult;
 import com.sina_reidenbach.insurancePremium.model.Vehicle;
 import com.sina_reidenbach.insurancePremium.service.*;
@@ -21,7 +25,6 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.ui.Model;
-import java.util.Collections;
 import java.util.List;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -71,11 +74,9 @@ public class FrontendControllerTest {
         int km = 1000;
         PremiumResult premiumResult = new PremiumResult(500.0, "Baden-Württemberg");
 
-        when(entityService.isPostcodeValid(validPostcode)).thenReturn(true);
-        when(entityService.getSortedVehicleList()).thenReturn(Collections.singletonList(vehicle));
-        when(calculateService.calculateAndSavePremiumWithStatistics(km, validPostcode, vehicleId, IpUtils.getClientIp(request)))
-                .thenReturn(500.0);
-        when(entityService.getRegionNameByPostcode(validPostcode)).thenReturn("Baden-Württemberg");
+        when(entityService.getHomePageModel()).thenReturn(new HomePageModel(List.of(vehicle), List.of()));
+        when(calculateService.quoteAndSaveStatistics(km, validPostcode, vehicleId, IpUtils.getClientIp(request)))
+                .thenReturn(quote(500.0, "Baden-Württemberg"));
 
         doAnswer(invocation -> {
             Model modelArg = invocation.getArgument(0);
@@ -90,6 +91,8 @@ public class FrontendControllerTest {
         verify(model).addAttribute("premium", "500,00 €");
         verify(model).addAttribute("region", "Baden-Württemberg");
         verify(model).addAttribute("vehicleList", List.of(vehicle));
+        verify(entityService).addPremiumToModel(any(Model.class), argThat(shown ->
+                shown.getPremium() == 500.0 && "Baden-Württemberg".equals(shown.getRegion())));
     }
 
 
@@ -105,7 +108,8 @@ public class FrontendControllerTest {
 
     @Test
     void testFilterPostcodes_withNoMatchingInput_returnsEmptyOptions() throws Exception {
-        when(entityService.generatePostcodeOptions("9999")).thenReturn("<option value=\"\">Keine Postleitzahlen gefunden</option>");
+        when(entityService.getPostcodeOptions("9999"))
+                .thenReturn(PostcodeOptions.of("<option value=\"\">Keine Postleitzahlen gefunden</option>"));
 
         mockMvc.perform(get("/filter-postcodes").param("input", "9999"))
                 .andExpect(status().isOk())
@@ -114,18 +118,32 @@ public class FrontendControllerTest {
 
     @Test
     void testFilterPostcodes_withMatchingInput_returnsFilteredPostcodes() throws Exception {
-        when(entityService.generatePostcodeOptions("7017"))
-                .thenReturn("<option value=\"70173\">70173</option><option value=\"70174\">70174</option>");
+        when(entityService.getPostcodeOptions("7017"))
+                .thenReturn(PostcodeOptions.of("<option value=\"70173\">70173</option><option value=\"70174\">70174</option>"));
 
         mockMvc.perform(get("/filter-postcodes").param("input", "7017"))
                 .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", containsString("max-age=3600")))
                 .andExpect(content().string(containsString("<option value=\"70173\">70173</option>")))
                 .andExpect(content().string(containsString("<option value=\"70174\">70174</option>")));
     }
 
+    @Test
+    void testFilterPostcodes_withMatchingETag_returnsNotModified() throws Exception {
+        PostcodeOptions options = PostcodeOptions.of("<option value=\"70173\">70173</option>");
+        when(entityService.getPostcodeOptions("70173")).thenReturn(options);
+
+        mockMvc.perform(get("/filter-postcodes").param("input", "70173")
+                        .header("If-None-Match", "\"" + options.etag() + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void testBerechnenInvalidPostcode() throws Exception {
-        when(entityService.isPostcodeValid("00000")).thenReturn(false);
+        when(calculateService.quoteAndSaveStatistics(anyInt(), eq("00000"), anyLong(), any()))
+                .thenThrow(new IllegalArgumentException("Kein Postleitzahl-Eintrag für den angegebenen Wert gefunden."));
 
         mockMvc.perform(post("/berechnen")
                         .param("km", "15000")
@@ -134,12 +152,15 @@ public class FrontendControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("index"));
 
-        verify(errorHandlingService, times(1)).handleError(any(Model.class), eq("Ungültige Postleitzahl"));
+        verify(errorHandlingService, times(1)).handleError(any(Model.class),
+                eq("Kein Postleitzahl-Eintrag für den angegebenen Wert gefunden."));
+        verify(entityService, times(1)).addDefaultAttributes(any(Model.class));
     }
 
     @Test
     void testBerechnenUnexpectedError() throws Exception {
-        when(entityService.isPostcodeValid(anyString())).thenThrow(new RuntimeException("Datenbankfehler"));
+        when(calculateService.quoteAndSaveStatistics(anyInt(), anyString(), anyLong(), any()))
+                .thenThrow(new RuntimeException("Datenbankfehler"));
 
         mockMvc.perform(post("/berechnen")
                         .param("km", "15000")
@@ -161,11 +182,9 @@ public class FrontendControllerTest {
     }
     @Test
     void testBerechnen_EmptyVehicleList() throws Exception {
-        when(entityService.isPostcodeValid("12345")).thenReturn(true);
-        when(entityService.getSortedVehicleList()).thenReturn(Collections.emptyList());
-        when(calculateService.calculateAndSavePremiumWithStatistics(anyInt(), anyString(), anyLong(), anyString()))
-                .thenReturn(500.0);
-        when(entityService.getRegionNameByPostcode("12345")).thenReturn("Baden-Württemberg");
+        when(entityService.getHomePageModel()).thenReturn(new HomePageModel(List.of(), List.of()));
+        when(calculateService.quoteAndSaveStatistics(anyInt(), anyString(), anyLong(), any()))
+                .thenReturn(quote(500.0, "Baden-Württemberg"));
 
         mockMvc.perform(post("/berechnen")
                         .param("km", "10000")
@@ -192,8 +211,7 @@ public class FrontendControllerTest {
 
     @Test
     void testBerechnen_CalculationThrowsException() throws Exception {
-        when(entityService.isPostcodeValid("12345")).thenReturn(true);
-        when(calculateService.calculateAndSavePremiumWithStatistics(anyInt(), anyString(), anyLong(), anyString()))
+        when(calculateService.quoteAndSaveStatistics(anyInt(), anyString(), anyLong(), any()))
                 .thenThrow(new RuntimeException("Berechnungsfehler"));
 
         mockMvc.perform(post("/berechnen")
@@ -214,9 +232,8 @@ public class FrontendControllerTest {
 
     @Test
     void testBerechnen_InvalidVehicleId() throws Exception {
-        when(entityService.isPostcodeValid("12345")).thenReturn(true);
-        when(calculateService.calculateAndSavePremiumWithStatistics(anyInt(), anyString(), eq(9999L), anyString()))
-                .thenThrow(new IllegalArgumentException("Fahrzeug nicht gefunden"));
+        when(calculateService.quoteAndSaveStatistics(anyInt(), anyString(), eq(9999L), any()))
+                .thenThrow(new IllegalArgumentException("Kein Fahrzeug mit der angegebenen ID gefunden."));
 
         mockMvc.perform(post("/berechnen")
                         .param("km", "10000")
@@ -225,7 +242,7 @@ public class FrontendControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("index"));
 
-        verify(errorHandlingService).handleError(any(Model.class), eq("Fahrzeug nicht gefunden"));
+        verify(errorHandlingService).handleError(any(Model.class), eq("Kein Fahrzeug mit der angegebenen ID gefunden."));
     }
 
     @Test
@@ -238,7 +255,11 @@ public class FrontendControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("index"));
 
-        verify(errorHandlingService).handleError(any(Model.class), eq("Ungültige Postleitzahl"));
+        verify(errorHandlingService).handleError(any(Model.class), eq("Ein unerwarteter Fehler ist aufgetreten."));
+    }
+
+    private static PremiumQuote quote(double premium, String region) {
+        return PremiumQuote.priced(premium, new QuoteContext("12345", 0, region, 1.0, 1L, "Pkw", 1.0, 0, 1.0));
     }
 }
 
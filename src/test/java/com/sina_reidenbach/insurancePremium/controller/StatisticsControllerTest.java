@@ -0,0 +1,79 @@
+package com.sina_reidenbach.insurancePremium.controller;
+
+import com.sina_reidenbach.insurancePremium.dto.CacheStatistics;
+import com.sina_reidenbach.insurancePremium.dto.StatisticsBufferMetrics;
+import com.sina_reidenbach.insurancePremium.dto.StatisticsRollup;
+import com.sina_reidenbach.insurancePremium.service.CacheStatisticsService;
+import com.sina_reidenbach.insurancePremium.service.StatisticsRollupService;
+import com.sina_reidenbach.insurancePremium.service.StatisticsWriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatisticsController.class)
+class StatisticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StatisticsWriteBuffer statisticsWriteBuffer;
+
+    @MockitoBean
+    private StatisticsRollupService statisticsRollupService;
+
+    @MockitoBean
+    private CacheStatisticsService cacheStatisticsService;
+
+    @Test
+    void testGetBufferMetrics() throws Exception {
+        when(statisticsWriteBuffer.getMetrics())
+                .thenReturn(new StatisticsBufferMetrics(3, 10000, "DROP", 120, 2, 0, 115, 0, 0));
+
+        mockMvc.perform(get("/api/statistics/buffer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queueDepth").value(3))
+                .andExpect(jsonPath("$.dropped").value(2))
+                .andExpect(jsonPath("$.overflowPolicy").value("DROP"));
+    }
+
+    @Test
+    void testGetRollups() throws Exception {
+        var from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        var to = LocalDateTime.of(2025, 3, 2, 0, 0);
+        when(statisticsRollupService.query(StatisticsRollupService.Granularity.HOUR, from, to, "Berlin", null))
+                .thenReturn(List.of(new StatisticsRollup("HOUR", from.plusHours(12), "Berlin", "Motorrad",
+                        2, 900.0, 400.0, 500.0, Map.of("0-5000", 2L))));
+
+        mockMvc.perform(get("/api/statistics/rollups")
+                        .param("granularity", "HOUR")
+                        .param("from", "2025-03-01T00:00:00")
+                        .param("to", "2025-03-02T00:00:00")
+                        .param("region", "Berlin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].region").value("Berlin"))
+                .andExpect(jsonPath("$[0].count").value(2))
+                .andExpect(jsonPath("$[0].premiumAverage").value(450.0));
+    }
+
+    @Test
+    void testGetCacheStatistics() throws Exception {
+        when(cacheStatisticsService.getStatistics()).thenReturn(new CacheStatistics(true, 40, 5, 5, 7, 1, 1,
+                Map.of("com.sina_reidenbach.insurancePremium.model.Vehicle", Map.of("hits", 40L, "misses", 5L, "puts", 5L))));
+
+        mockMvc.perform(get("/api/statistics/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.secondLevelCacheHits").value(40))
+                .andExpect(jsonPath("$.queryCacheMisses").value(1))
+                .andExpect(jsonPath("$.regions['com.sina_reidenbach.insurancePremium.model.Vehicle'].hits").value(40));
+    }
+}
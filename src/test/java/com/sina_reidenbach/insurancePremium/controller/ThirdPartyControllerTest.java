@@ -1,11 +1,19 @@
 package com.sina_reidenbach.insurancePremium.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.cache.PremiumMatrix;
+import com.sina_reidenbach.insurancePremium.cache.SerializedResponse;
 import com.sina_reidenbach.insurancePremium.dto.*;
+import com.sina_reidenbach.insurancePremium.model.Anno_Kilometers;
+import com.sina_reidenbach.insurancePremium.model.Region;
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
 import com.sina_reidenbach.insurancePremium.repository.*;
 import com.sina_reidenbach.insurancePremium.service.CalculateService;
 import com.sina_reidenbach.insurancePremium.service.EntityService;
 import com.sina_reidenbach.insurancePremium.service.ErrorHandlingService;
+import com.sina_reidenbach.insurancePremium.service.OptionsResponseService;
+import com.sina_reidenbach.insurancePremium.service.PremiumStreamService;
 import com.sina_reidenbach.insurancePremium.service.StatisticsService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -23,6 +32,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ThirdPartyController.class)
+@TestPropertySource(properties = "insurance.calculate.batch-max-items=2")
 public class ThirdPartyControllerTest {
 
     @Autowired
@@ -57,6 +67,10 @@ public class ThirdPartyControllerTest {
     private ObjectMapper objectMapper;
     @MockitoBean
     private EntityService entityService;
+    @MockitoBean
+    private OptionsResponseService optionsResponseService;
+    @MockitoBean
+    private PremiumStreamService premiumStreamService;
     private AnnoKilometersResponse annoKilometersResponse;
     private RegionResponse regionResponse;
 
@@ -86,16 +100,28 @@ public class ThirdPartyControllerTest {
     public void testGetVehicles() throws Exception {
         VehicleResponse vehicleResponse = createVehicleResponse();
 
-        when(entityService.getVehicles()).thenReturn(vehicleResponse);
+        SerializedResponse serialized = SerializedResponse.of(objectMapper.writeValueAsBytes(vehicleResponse));
+        when(optionsResponseService.getVehicles()).thenReturn(serialized);
 
         mockMvc.perform(get("/api/options/vehicles"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + serialized.etag() + "\""))
                 .andExpect(jsonPath("$.vehicles['1'].vehicleName").value("SUV"))
                 .andExpect(jsonPath("$.vehicles['1'].factor").value(1.5))
                 .andExpect(jsonPath("$.vehicles['2'].vehicleName").value("Motorrad"))
                 .andExpect(jsonPath("$.vehicles['2'].factor").value(2.0));
     }
 
+    @Test
+    void testGetVehicles_NotModified() throws Exception {
+        SerializedResponse serialized = SerializedResponse.of(objectMapper.writeValueAsBytes(createVehicleResponse()));
+        when(optionsResponseService.getVehicles()).thenReturn(serialized);
+
+        mockMvc.perform(get("/api/options/vehicles").header("If-None-Match", "\"" + serialized.etag() + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     private VehicleResponse createVehicleResponse() {
         VehicleResponse vehicleResponse = new VehicleResponse();
 
@@ -116,7 +142,8 @@ public class ThirdPartyControllerTest {
 
     @Test
     void testGetRegions() throws Exception {
-        when(entityService.getRegions()).thenReturn(regionResponse);
+        when(optionsResponseService.getRegions())
+                .thenReturn(SerializedResponse.of(objectMapper.writeValueAsBytes(regionResponse)));
         ResultActions resultActions = mockMvc.perform(get("/api/options/regions")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -125,12 +152,13 @@ public class ThirdPartyControllerTest {
                 .andExpect(jsonPath("$.regions['2'].region").value("Bavaria"))
                 .andExpect(jsonPath("$.regions['3'].region").value("North Rhine-Westphalia"));
 
-        verify(entityService, times(1)).getRegions();
+        verify(optionsResponseService, times(1)).getRegions();
     }
 
     @Test
     void testGetAnnoKilometers() throws Exception {
-        when(entityService.getAnnoKilometers()).thenReturn(annoKilometersResponse);
+        when(optionsResponseService.getAnnoKilometers())
+                .thenReturn(SerializedResponse.of(objectMapper.writeValueAsBytes(annoKilometersResponse)));
 
         ResultActions resultActions = mockMvc.perform(get("/api/options/annoKilometers")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -141,7 +169,7 @@ public class ThirdPartyControllerTest {
                 .andExpect(jsonPath("$.annoKilometers[2].range").value("10001-20000"))
                 .andExpect(jsonPath("$.annoKilometers[3].range").value("20001-99999"));
 
-        verify(entityService, times(1)).getAnnoKilometers();
+        verify(optionsResponseService, times(1)).getAnnoKilometers();
     }
 
     @Test
@@ -151,7 +179,7 @@ public class ThirdPartyControllerTest {
         invalidData.put("vehicle", "InvalidVehicle");
 
         List<String> errorMessages = Arrays.asList("Invalid postcode", "Invalid vehicle type");
-        when(calculateService.validatePremiumRequest(any(), any())).thenReturn(errorMessages);
+        when(calculateService.quote(any(PremiumRequest.class))).thenReturn(PremiumQuote.rejected(errorMessages));
 
         ErrorResponse errorResponse = new ErrorResponse("Validation Error", "Invalid input data: Invalid postcode, Invalid vehicle type");
         when(errorHandlingService.handleValidationErrors(any())).thenReturn(
@@ -168,8 +196,7 @@ public class ThirdPartyControllerTest {
 
         @Test
         public void testCalculatePremium_ValidData () throws Exception {
-            when(calculateService.validatePremiumRequest(any(), any())).thenReturn(new ArrayList<>());
-            when(calculateService.calculateAndBuildResponse(any())).thenReturn(new PremiumResponse());
+            when(calculateService.quote(any(PremiumRequest.class))).thenReturn(PremiumQuote.priced(562.5, null));
 
 
             String jsonRequest = "{\"kmMin\":2000,\"kmMax\":2000,\"vehicleId\":14,\"postcode\":\"51373\"}";
@@ -177,17 +204,17 @@ public class ThirdPartyControllerTest {
             mockMvc.perform(post("/api/calculate")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(jsonRequest))
-                    .andExpect(status().isOk());
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.premium.premium").value(562.5));
 
-            verify(calculateService, times(1)).validatePremiumRequest(any(), any());
-            verify(calculateService, times(1)).calculateAndBuildResponse(any());
+            verify(calculateService, times(1)).quote(new PremiumRequest(14L, null, "51373"));
+            verify(calculateService, never()).validatePremiumRequest(any(PremiumRequest.class));
 
         }
 
         @Test
         public void testCalculatePremium_ServerError () throws Exception {
-            when(calculateService.validatePremiumRequest(any(), any())).thenReturn(new ArrayList<>());
-            when(calculateService.calculateAndBuildResponse(any())).thenThrow(new RuntimeException("Internal Server Error"));
+            when(calculateService.quote(any(PremiumRequest.class))).thenThrow(new RuntimeException("Internal Server Error"));
 
             ErrorResponse errorResponse = new ErrorResponse("Server Error", "Internal Server Error");
             when(errorHandlingService.handleServerError(any())).thenReturn(
@@ -203,7 +230,93 @@ public class ThirdPartyControllerTest {
                     .andExpect(jsonPath("$.error").value("Server Error"))
                     .andExpect(jsonPath("$.message").value("Internal Server Error"));
 
-            verify(calculateService, times(1)).validatePremiumRequest(any(), any());
-            verify(calculateService, times(1)).calculateAndBuildResponse(any());
+            verify(calculateService, times(1)).quote(any(PremiumRequest.class));
         }
-    }
\ No newline at end of file
+
+    @Test
+    void testGetPremiumMatrix() throws Exception {
+        var table = PremiumFactorTable.of(List.of(new Vehicle(14L, "SUV", 1.5)),
+                List.of(new Anno_Kilometers(1L, 0, 5000, 0.5)),
+                List.of(new Region(10L, "Nordrhein-Westfalen", 1.5)),
+                Collections.singletonList(new Object[]{"51373", 10L}));
+        var response = SerializedResponse.of(objectMapper.writeValueAsBytes(PremiumMatrixResponse.of(PremiumMatrix.of(table, 500))));
+        when(optionsResponseService.getPremiumMatrix()).thenReturn(response);
+
+        mockMvc.perform(get("/api/premium-matrix"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + response.etag() + "\""))
+                .andExpect(jsonPath("$.vehicles[0].name").value("SUV"))
+                .andExpect(jsonPath("$.regions[0]").value("Nordrhein-Westfalen"))
+                .andExpect(jsonPath("$.premiums[0][0][0]").value(562.5));
+
+        mockMvc.perform(get("/api/premium-matrix").header("If-None-Match", "\"" + response.etag() + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testCalculatePremiumBatch() throws Exception {
+        when(calculateService.calculateBatch(anyList())).thenReturn(new PremiumBatchResponse(List.of(
+                new PremiumBatchResult(0, 562.5, List.of()),
+                new PremiumBatchResult(1, null, List.of("Kein Fahrzeug mit der angegebenen ID gefunden.")))));
+
+        String jsonRequest = "[{\"vehicleId\":14,\"annoKilometers\":2000,\"postcode\":\"51373\"},"
+                + "{\"vehicleId\":999,\"annoKilometers\":2000,\"postcode\":\"51373\"}]";
+
+        mockMvc.perform(post("/api/calculate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.errorCount").value(1))
+                .andExpect(jsonPath("$.results[0].premium").value(562.5));
+
+        verify(calculateService, times(1)).calculateBatch(argThat(items -> items.size() == 2
+                && items.get(1).getVehicleId() == 999L && "51373".equals(items.get(0).getPostcode())));
+        verify(calculateService, never()).quote(any(PremiumRequest.class));
+    }
+
+    @Test
+    void testCalculatePremiumBatch_TooManyItems() throws Exception {
+        when(errorHandlingService.handleValidationErrors(any())).thenReturn(
+                ResponseEntity.badRequest().body(new ErrorResponse("Fehlerhafte Eingabewerte",
+                        "Es dürfen höchstens 2 Einträge übergeben werden.")));
+
+        String jsonRequest = "[{\"vehicleId\":14,\"annoKilometers\":2000,\"postcode\":\"51373\"},"
+                + "{\"vehicleId\":14,\"annoKilometers\":2000,\"postcode\":\"51373\"},"
+                + "{\"vehicleId\":14,\"annoKilometers\":2000,\"postcode\":\"51373\"},"
+                + "kein json";
+
+        mockMvc.perform(post("/api/calculate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isBadRequest());
+
+        verify(errorHandlingService, times(1)).handleValidationErrors(
+                List.of("Es dürfen höchstens 2 Einträge übergeben werden."));
+        verify(calculateService, never()).calculateBatch(anyList());
+    }
+
+    @Test
+    void testCalculatePremiumBatch_InvalidJson() throws Exception {
+        when(errorHandlingService.handleValidationErrors(any())).thenReturn(
+                ResponseEntity.badRequest().body(new ErrorResponse("Fehlerhafte Eingabewerte", "kein Array")));
+
+        mockMvc.perform(post("/api/calculate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vehicleId\":14}"))
+                .andExpect(status().isBadRequest());
+
+        verify(calculateService, never()).calculateBatch(anyList());
+    }
+
+    @Test
+    void testCalculatePremiumStream_Csv() throws Exception {
+        mockMvc.perform(post("/api/calculate/stream")
+                        .contentType("text/csv")
+                        .content("vehicleId,annoKilometers,postcode\n14,2000,51373\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+
+        verify(premiumStreamService, times(1)).calculate(any(), eq(true), any());
+    }
+}
@@ -0,0 +1,28 @@
+package com.sina_reidenbach.insurancePremium.dto;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PremiumRequestTest {
+
+    @Test
+    void testOfMap() {
+        Map<String, Object> premiumData = Map.of("vehicleId", 14, "annoKilometers", 2000, "postcode", "51373");
+
+        PremiumRequest request = PremiumRequest.of(premiumData);
+
+        assertEquals(new PremiumRequest(14L, 2000, "51373"), request);
+    }
+
+    @Test
+    void testOfMap_missingValues() {
+        PremiumRequest request = PremiumRequest.of(new HashMap<>());
+
+        assertNull(request.vehicleId());
+        assertNull(request.annoKilometers());
+        assertNull(request.postcode());
+    }
+}
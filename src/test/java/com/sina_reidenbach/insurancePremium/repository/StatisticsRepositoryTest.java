@@ -22,35 +22,35 @@ public class StatisticsRepositoryTest {
 
 
     @Test
-    void testFindByDateTimeAndPostcodeAndVehicle_Found() {
+    void testFindByDateTimeAndPostcodeAndVehicleId_Found() {
         LocalDateTime dateTime = LocalDateTime.of(2025, 2, 24, 10, 30);
         String postcode = "51373";
-        String vehicleName = "Geländewagen (SUV)";
+        Long vehicleId = 14L;
         String ip = "127.0.0.1";
 
-        Statistics entity = new Statistics(dateTime, postcode, vehicleName, 2000, 562.5, ip);
+        Statistics entity = new Statistics(dateTime, postcode, vehicleId, 2000, 562.5, ip);
         statisticsRepository.save(entity);
 
         List<Statistics> allStatistics = statisticsRepository.findAll();
         System.out.println("All stored Statistics:");
         allStatistics.forEach(stat -> System.out.println(stat));
 
-        Optional<Statistics> result = statisticsRepository.findByDateTimeAndPostcodeAndVehicle(dateTime, postcode, vehicleName);
+        Optional<Statistics> result = statisticsRepository.findByDateTimeAndPostcodeAndVehicleId(dateTime, postcode, vehicleId);
         System.out.println(result);
 
         assertTrue(result.isPresent(), "Statistik sollte gefunden werden.");
         assertTrue(result.get().getDateTime().equals(dateTime), "DateTime sollte übereinstimmen.");
         assertTrue(result.get().getPostcode().equals(postcode), "Postcode sollte übereinstimmen.");
-        assertTrue(result.get().getVehicle().equals(vehicleName), "VehicleName sollte übereinstimmen.");
+        assertTrue(result.get().getVehicleId().equals(vehicleId), "VehicleId sollte übereinstimmen.");
     }
 
     @Test
-    void testFindByDateTimeAndPostcodeAndVehicle_NotFound() {
+    void testFindByDateTimeAndPostcodeAndVehicleId_NotFound() {
         LocalDateTime dateTime = LocalDateTime.of(2025, 2, 24, 10, 30, 0, 0);
         String postcode = "12345";
-        String vehicleName = "NonExistentVehicle";
+        Long vehicleId = 999L;
 
-        Optional<Statistics> result = statisticsRepository.findByDateTimeAndPostcodeAndVehicle(dateTime, postcode, vehicleName);
+        Optional<Statistics> result = statisticsRepository.findByDateTimeAndPostcodeAndVehicleId(dateTime, postcode, vehicleId);
 
         assertFalse(result.isPresent(), "Statistik sollte nicht gefunden werden.");
     }
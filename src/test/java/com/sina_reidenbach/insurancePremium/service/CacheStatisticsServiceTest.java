@@ -0,0 +1,66 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheStatisticsServiceTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactory sessionFactory;
+    @Mock
+    private Statistics statistics;
+    @Mock
+    private CacheRegionStatistics regionStatistics;
+
+    @InjectMocks
+    private CacheStatisticsService cacheStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+    }
+
+    @Test
+    void testGetStatistics() {
+        var region = "com.sina_reidenbach.insurancePremium.model.Vehicle";
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(40L);
+        when(statistics.getQueryCacheMissCount()).thenReturn(3L);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{region});
+        when(statistics.getCacheRegionStatistics(region)).thenReturn(regionStatistics);
+        when(regionStatistics.getHitCount()).thenReturn(40L);
+        when(regionStatistics.getMissCount()).thenReturn(5L);
+
+        var result = cacheStatisticsService.getStatistics();
+
+        assertTrue(result.isEnabled());
+        assertEquals(40, result.getSecondLevelCacheHits());
+        assertEquals(3, result.getQueryCacheMisses());
+        assertEquals(40L, result.getRegions().get(region).get("hits"));
+        assertEquals(5L, result.getRegions().get(region).get("misses"));
+    }
+
+    @Test
+    void testGetStatisticsWithoutCacheProfile() {
+        when(statistics.isStatisticsEnabled()).thenReturn(false);
+
+        var result = cacheStatisticsService.getStatistics();
+
+        assertFalse(result.isEnabled());
+        assertTrue(result.getRegions().isEmpty());
+        verify(statistics, never()).getSecondLevelCacheRegionNames();
+    }
+}
@@ -1,6 +1,10 @@
 package com.sina_reidenbach.insurancePremium.service;
 
 import com.sina_reidenbach.insurancePremium.InsurancePremiumApplication;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchItem;
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuote;
+import com.sina_reidenbach.insurancePremium.dto.PremiumQuoteResponse;
+import com.sina_reidenbach.insurancePremium.dto.PremiumRequest;
 import com.sina_reidenbach.insurancePremium.dto.PremiumResponse;
 import com.sina_reidenbach.insurancePremium.model.*;
 import com.sina_reidenbach.insurancePremium.repository.AnnoKilometersRepository;
@@ -109,6 +113,14 @@ class CalculateServiceTest {
         assertEquals(expectedPremium, result, 0.001);
     }
 
+    @Test
+    void testCalculatePremium_UnknownVehicle() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> calculateService.calculatePremium(9999L, 2000, "51373"));
+
+        assertEquals("Fahrzeug mit ID 9999 nicht gefunden.", exception.getMessage());
+    }
+
     @Test
     void testValidatePremiumRequest_vehicleIdIsNull() {
         Map<String, Object> premiumRequest = new HashMap<>();
@@ -272,6 +284,64 @@ class CalculateServiceTest {
         assertThrows(RuntimeException.class, () -> calculateService.calculateAndBuildResponse(premiumRequest));
     }
 
+    @Test
+    void testCalculateQuote() {
+        PremiumQuoteResponse response = calculateService.calculateQuote(new PremiumRequest(14L, 2000, "51373"));
+
+        assertNotNull(response);
+        assertEquals(562.5, response.premium().premium());
+    }
+
+    @Test
+    void testValidatePremiumRequest_typed() {
+        when(vehicleRepository.findById(999L)).thenReturn(Optional.empty());
+
+        List<String> errorMessages = calculateService.validatePremiumRequest(new PremiumRequest(999L, 0, null));
+
+        assertTrue(errorMessages.contains("Kein Fahrzeug mit der angegebenen ID gefunden."));
+        assertTrue(errorMessages.contains("Kilometerzahl muss größer als 0 sein."));
+        assertTrue(errorMessages.contains("postcode muss angegeben werden."));
+        verify(postcodeRepository, never()).findFirstByPostcodeValue(any());
+    }
+
+    @Test
+    void testValidatePremiumRequest_MatchesQuote() {
+        var request = new PremiumRequest(999L, 2000, "99999");
+
+        assertEquals(calculateService.quote(request).errors(), calculateService.validatePremiumRequest(request));
+        assertEquals(calculateService.quote(request).errors(), calculateService.validatePremiumRequest(
+                Map.of("vehicleId", 999L, "annoKilometers", 2000, "postcode", "99999"), calculateService));
+    }
+
+    @Test
+    void testQuote() {
+        PremiumQuote quote = calculateService.quote(new PremiumRequest(14L, 2000, "51373"));
+
+        assertTrue(quote.isValid());
+        assertEquals(calculateService.calculatePremium(14L, 2000, "51373"), quote.premium(), 0.001);
+        assertNotNull(quote.context().vehicleName());
+        assertNotNull(quote.context().regionName());
+    }
+
+    @Test
+    void testQuote_invalidRequest() {
+        PremiumQuote quote = calculateService.quote(new PremiumRequest(999L, 2000, "99999"));
+
+        assertFalse(quote.isValid());
+        assertNull(quote.premium());
+        assertTrue(quote.errors().contains("Kein Fahrzeug mit der angegebenen ID gefunden."));
+        assertTrue(quote.errors().contains("Kein Postleitzahl-Eintrag für den angegebenen Wert gefunden."));
+    }
+
+    @Test
+    void testGetPremiumMatrix() {
+        var matrix = calculateService.getPremiumMatrix();
+        var quote = calculateService.quote(new PremiumRequest(14L, 2000, "51373"));
+
+        assertSame(matrix, calculateService.getPremiumMatrix());
+        assertEquals(quote.premium(), matrix.premium(14L, quote.context().kmBand(), quote.context().regionIndex()));
+    }
+
     @Test
     void testCalculateAndBuildResponse_invalidPostcode() {
         Map<String, Object> premiumRequest = new HashMap<>();
@@ -287,4 +357,22 @@ class CalculateServiceTest {
         assertTrue(errorMessages.contains("Kein Postleitzahl-Eintrag für den angegebenen Wert gefunden."));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testCalculateBatch() {
+        var items = new ArrayList<PremiumBatchItem>();
+        items.add(new PremiumBatchItem(14L, 2000, "51373"));
+        items.add(new PremiumBatchItem(999L, 2000, "51373"));
+        items.add(new PremiumBatchItem(14L, -5, null));
+        items.add(null);
+
+        var response = calculateService.calculateBatch(items);
+
+        assertEquals(4, response.getCount());
+        assertEquals(3, response.getErrorCount());
+        assertEquals(calculateService.calculatePremium(14L, 2000, "51373"), response.getResults().get(0).getPremium(), 0.001);
+        assertTrue(response.getResults().get(1).getErrors().contains("Kein Fahrzeug mit der angegebenen ID gefunden."));
+        assertTrue(response.getResults().get(2).getErrors().contains("postcode muss angegeben werden."));
+        assertTrue(response.getResults().get(2).getErrors().contains("Kilometerzahl muss größer als 0 sein."));
+        assertNull(response.getResults().get(3).getPremium());
+    }
+}
@@ -3,6 +3,7 @@ package com.sina_reidenbach.insurancePremium.service;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
 import com.sina_reidenbach.insurancePremium.InsurancePremiumApplication;
+import com.sina_reidenbach.insurancePremium.cache.ReferenceDataSnapshot;
 import com.sina_reidenbach.insurancePremium.controller.FrontendController;
 import com.sina_reidenbach.insurancePremium.dto.PremiumResult;
 import com.sina_reidenbach.insurancePremium.model.*;
@@ -10,6 +11,7 @@ import com.sina_reidenbach.insurancePremium.repository.*;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,11 +20,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.io.*;
 import java.io.BufferedReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,17 +60,19 @@ class DatabaseServiceTest {
     private CityRepository cityRepository;
     @Autowired
     private VehicleRepository vehicleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Mock
     private EntityManager entityManager;
+    @TempDir
+    Path tempDir;
 
     @BeforeEach
     void setUp() throws IOException, CsvException {
-        regionRepository.deleteAll();
-        cityRepository.deleteAll();
-        postcodeRepository.deleteAll();
-        vehicleRepository.deleteAll();
-        annoKilometersRepository.deleteAll();
+        for (String table : List.of("postcode", "city", "region", "vehicle", "anno_kilometers")) {
+            jdbcTemplate.execute("DELETE FROM " + table);
+        }
 
         MockitoAnnotations.openMocks(this);
         doNothing().when(entityManager).persist(any(Anno_Kilometers.class));
@@ -101,48 +110,182 @@ class DatabaseServiceTest {
     }
 
     @Test
-    void testCreateCity(){
-        Region region = new Region();
-        region.setName("Nordrheinwestfalen");
-        List<Region> regionList = new ArrayList<>();
-        regionList.add(region);
+    void testSaveDataTransactional() {
+        databaseService.saveDataTransactional();
 
-        regionRepository.save(region);
+        Optional<City> city = cityRepository.findFirstByName("Breisach am Rhein");
+        assertTrue(city.isPresent(), "Die Stadt 'Breisach am Rhein' sollte gespeichert sein.");
 
-        City result = databaseService.createCity("Leverkusen",regionList.get(0));
+        Optional<Postcode> postcode = postcodeRepository.findFirstByPostcodeValue("44627");
+        assertTrue(postcode.isPresent(), "Die Postleitzahl '79206' sollte gespeichert sein.");
 
-        assertNotNull(result, "Die Stadt sollte nicht Null sein");
+        Optional<Region> region = regionRepository.findByName("Baden-Württemberg");
+        assertTrue(region.isPresent(), "Die Stadt 'Herne' sollte gespeichert sein.");
     }
 
     @Test
-    void testCreatePostcode() {
-        Region region = new Region();
-        region.setName("Bayern");
-        regionRepository.save(region);
-        City city = new City();
-        city.setName("München");
-        city.setRegion(region);
-        cityRepository.save(city);
+    void testSaveDataTransactional_ImportsCompleteCsv() throws IOException {
+        var expectedCities = new HashSet<String>();
+        var expectedPostcodes = new HashMap<String, String>();
+        try (CSVReader csvReader = databaseService.openCSV()) {
+            for (String[] row : csvReader) {
+                if (row.length <= 7) {
+                    continue;
+                }
+                String regionName = row[2].replace("\"", "").trim();
+                String value = row[6].replace("\"", "").trim();
+                String cityName = row[7].replace("\"", "").trim();
+                if (!regionName.isEmpty() && !cityName.isEmpty() && value.matches("\\d{5}")) {
+                    expectedCities.add(cityName);
+                    expectedPostcodes.putIfAbsent(value, cityName);
+                }
+            }
+        }
+
+        databaseService.saveDataTransactional();
 
+        assertEquals(4, annoKilometersRepository.count(), "Alle Kilometerbereiche sollten gespeichert sein.");
+        assertEquals(15, vehicleRepository.count(), "Alle Fahrzeuge sollten gespeichert sein.");
+        assertEquals(16, regionRepository.count(), "Alle Regionen sollten gespeichert sein.");
+        assertEquals(expectedCities.size(), cityRepository.count(), "Alle Städte sollten genau einmal gespeichert sein.");
+        assertEquals(expectedPostcodes.size(), postcodeRepository.count(), "Alle Postleitzahlen sollten genau einmal gespeichert sein.");
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM postcode p LEFT JOIN city c ON p.city_id = c.id "
+                        + "LEFT JOIN region r ON c.region_id = r.id WHERE r.id IS NULL", Long.class),
+                "Jede Postleitzahl sollte auf eine gespeicherte Stadt und Region verweisen.");
+        assertEquals(expectedPostcodes.get("79206"), jdbcTemplate.queryForObject(
+                "SELECT c.name FROM postcode p JOIN city c ON p.city_id = c.id WHERE p.postcode_value = '79206'",
+                String.class));
+    }
 
-        Postcode result = databaseService.createPostcode("51373",city,region);
+    @Test
+    void testSaveDataTransactional_RestartDoesNotDuplicateData() {
+        databaseService.saveDataTransactional();
+        long annoKilometersCount = annoKilometersRepository.count();
+        long vehicleCount = vehicleRepository.count();
+        long regionCount = regionRepository.count();
+        long cityCount = cityRepository.count();
+        long postcodeCount = postcodeRepository.count();
 
-        assertNotNull(result, "Der Postcode sollte nicht Null sein");
+        databaseService.saveDataTransactional();
+
+        assertEquals(annoKilometersCount, annoKilometersRepository.count(), "Kilometerbereiche dürfen nicht doppelt gespeichert werden.");
+        assertEquals(vehicleCount, vehicleRepository.count(), "Fahrzeuge dürfen nicht doppelt gespeichert werden.");
+        assertEquals(regionCount, regionRepository.count(), "Regionen dürfen nicht doppelt gespeichert werden.");
+        assertEquals(cityCount, cityRepository.count(), "Städte dürfen nicht doppelt gespeichert werden.");
+        assertEquals(postcodeCount, postcodeRepository.count(), "Postleitzahlen dürfen nicht doppelt gespeichert werden.");
     }
 
+    @Test
+    void testImportCitiesAndPostcodes_SkipsExistingEntries() {
+        databaseService.createRegion();
+
+        databaseService.importCitiesAndPostcodes(data);
+        long cityCount = cityRepository.count();
+        long postcodeCount = postcodeRepository.count();
+        databaseService.importCitiesAndPostcodes(data);
+
+        assertTrue(cityRepository.findFirstByName("Herne").isPresent(), "Die Stadt 'Herne' sollte gespeichert sein.");
+        assertTrue(postcodeRepository.findFirstByPostcodeValue("79206").isPresent(), "Die Postleitzahl '79206' sollte gespeichert sein.");
+        assertEquals(cityCount, cityRepository.count(), "Städte dürfen nicht doppelt gespeichert werden.");
+        assertEquals(postcodeCount, postcodeRepository.count(), "Postleitzahlen dürfen nicht doppelt gespeichert werden.");
+    }
 
-    @Transactional
     @Test
-    void testSaveDataTransactional() {
+    void testImportCitiesAndPostcodes_SkipsMalformedLines() throws IOException, CsvException {
+        databaseService.createRegion();
+
+        databaseService.importCitiesAndPostcodes(readCsv(
+                "\"DE\",\"DE-BY\",\"Bayern\",,,,\"80331\",\"München\"",
+                "\"DE\",\"DE-BY\",\"Bayern\",,,,\"8033\",\"München\"",
+                "\"DE\",\"DE-BY\",\"Bayern\",,,,\"80A31\",\"München\"",
+                "\"DE\",\"DE-BY\",\"Bayern\",,,,\"80333\",",
+                "\"DE\",\"DE-XX\",\"Atlantis\",,,,\"80335\",\"Poseidonis\"",
+                "\"DE\",\"DE-BY\",\"Bayern\""));
+
+        assertEquals(1, cityRepository.count(), "Nur die gültige Zeile sollte eine Stadt anlegen.");
+        assertEquals(1, postcodeRepository.count(), "Nur die gültige Zeile sollte eine Postleitzahl anlegen.");
+        assertTrue(postcodeRepository.findFirstByPostcodeValue("80331").isPresent());
+        assertTrue(cityRepository.findFirstByName("Poseidonis").isEmpty(), "Städte ohne bekannte Region dürfen nicht gespeichert werden.");
+    }
+
+    @Test
+    void testImportCitiesAndPostcodes_QuotedFields() throws IOException, CsvException {
+        databaseService.createRegion();
+
+        databaseService.importCitiesAndPostcodes(readCsv(
+                "\"DE\",\"DE-ST\",\"Sachsen-Anhalt\",,,,\"06108\",\"Halle (Saale), Stadt\"",
+                "\"DE\", \"DE-BW\", \"Baden-Württemberg\", , , , \" 79206 \", \"Breisach am Rhein\""));
+
+        assertEquals("Halle (Saale), Stadt", cityOfPostcode("06108"), "Kommas in Anführungszeichen gehören zum Feld.");
+        assertEquals("Breisach am Rhein", cityOfPostcode("79206"), "Leerzeichen und Anführungszeichen werden entfernt.");
+    }
+
+    @Test
+    void testImportCitiesAndPostcodes_ChunkBoundaries() throws IOException, CsvException {
+        databaseService.createRegion();
+        var target = AopTestUtils.getTargetObject(databaseService);
+        ReflectionTestUtils.setField(target, "batchSize", 2);
+        ReflectionTestUtils.setField(target, "writerCount", 3);
+        try {
+            var lines = new ArrayList<String>();
+            for (int i = 0; i < 5; i++) {
+                lines.add("\"DE\",\"DE-BY\",\"Bayern\",,,,\"8033" + i + "\",\"München\"");
+            }
+            lines.add("\"DE\",\"DE-BE\",\"Berlin\",,,,\"10115\",\"Berlin\"");
+            lines.add("\"DE\",\"DE-BY\",\"Bayern\",,,,\"80335\",\"München\"");
+            lines.add("\"DE\",\"DE-BY\",\"Bayern\",,,,\"80331\",\"München\"");
+            lines.add("\"DE\",\"DE-BE\",\"Berlin\",,,,\"10117\",\"Berlin\"");
+
+            databaseService.importCitiesAndPostcodes(readCsv(lines.toArray(String[]::new)));
+        } finally {
+            ReflectionTestUtils.setField(target, "batchSize", 1000);
+            ReflectionTestUtils.setField(target, "writerCount", 4);
+        }
+
+        assertEquals(2, cityRepository.count(), "Jede Stadt darf nur einmal gespeichert werden.");
+        assertEquals(8, postcodeRepository.count(), "Doppelte Postleitzahlen dürfen nicht gespeichert werden.");
+        for (String postcode : List.of("80330", "80331", "80332", "80333", "80334", "80335")) {
+            assertEquals("München", cityOfPostcode(postcode), "Postleitzahl " + postcode + " sollte zu München gehören.");
+        }
+        assertEquals("Berlin", cityOfPostcode("10117"));
+    }
+
+    @Test
+    void testLoadSnapshot_RejectsStaleChecksum() throws IOException {
         databaseService.saveDataTransactional();
+        var snapshot = databaseService.readSnapshotFromDatabase();
+        var stale = new ReferenceDataSnapshot(snapshot.sourceChecksum() + 1, snapshot.annoKilometers(),
+                snapshot.vehicles(), snapshot.regions(), snapshot.cities(), snapshot.postcodes());
+        var path = tempDir.resolve("reference-data.snapshot");
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(databaseService), "snapshotPath", path.toString());
+        try {
+            for (String table : List.of("postcode", "city", "region", "vehicle", "anno_kilometers")) {
+                jdbcTemplate.execute("DELETE FROM " + table);
+            }
 
-        Optional<City> city = cityRepository.findFirstByName("Breisach am Rhein");
-        assertTrue(city.isPresent(), "Die Stadt 'Breisach am Rhein' sollte gespeichert sein.");
+            stale.write(path);
+            assertFalse(databaseService.loadSnapshot(), "Eine veraltete Momentaufnahme darf nicht geladen werden.");
+            assertEquals(0, regionRepository.count());
 
-        Optional<Postcode> postcode = postcodeRepository.findFirstByPostcodeValue("44627");
-        assertTrue(postcode.isPresent(), "Die Postleitzahl '79206' sollte gespeichert sein.");
+            snapshot.write(path);
+            assertTrue(databaseService.loadSnapshot(), "Eine passende Momentaufnahme sollte geladen werden.");
+            assertEquals(snapshot.postcodes().size(), postcodeRepository.count());
+            assertNotNull(vehicleRepository.save(new Vehicle("Quad", 1.5)).getId(),
+                    "Der ID-Generator sollte hinter die geladenen IDs gesetzt sein.");
+        } finally {
+            ReflectionTestUtils.setField(AopTestUtils.getTargetObject(databaseService), "snapshotPath", "");
+        }
+    }
 
-        Optional<Region> region = regionRepository.findByName("Baden-Württemberg");
-        assertTrue(region.isPresent(), "Die Stadt 'Herne' sollte gespeichert sein.");
+    private static List<String[]> readCsv(String... lines) throws IOException, CsvException {
+        try (CSVReader csvReader = new CSVReader(new StringReader(String.join("\n", lines)))) {
+            return csvReader.readAll();
+        }
+    }
+
+    private String cityOfPostcode(String postcode) {
+        return jdbcTemplate.queryForObject("SELECT c.name FROM postcode p JOIN city c ON p.city_id = c.id "
+                + "WHERE p.postcode_value = ?", String.class, postcode);
     }
 }
@@ -1,6 +1,10 @@
 package com.sina_reidenbach.insurancePremium.service;
 
 import com.sina_reidenbach.insurancePremium.InsurancePremiumApplication;
+import com.sina_reidenbach.insurancePremium.cache.MappedPostcodeLookup;
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.cache.ReferenceDataSnapshot;
+import com.sina_reidenbach.insurancePremium.cache.VehicleOptionFragments;
 import com.sina_reidenbach.insurancePremium.dto.AnnoKilometersResponse;
 import com.sina_reidenbach.insurancePremium.dto.PremiumResult;
 import com.sina_reidenbach.insurancePremium.model.*;
@@ -8,11 +12,14 @@ import com.sina_reidenbach.insurancePremium.repository.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.ui.Model;
+import java.nio.file.Path;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +27,8 @@ import static org.mockito.Mockito.*;
 @SpringBootTest(classes = InsurancePremiumApplication.class)
 class EntityServiceTest {
     private AutoCloseable closeable;
+    @TempDir
+    Path tempDir;
     @Mock
     private VehicleRepository vehicleRepository;
     @Mock
@@ -32,6 +41,10 @@ class EntityServiceTest {
     private RegionRepository regionRepository;
     @Mock
     private AnnoKilometersRepository annoKilometersRepository;
+    @Mock
+    private PremiumFactorService premiumFactorService;
+    @Mock
+    private PostcodeLookupService postcodeLookupService;
 
     @InjectMocks
     private EntityService entityService;
@@ -39,6 +52,16 @@ class EntityServiceTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(entityService, "premiumFactorService", premiumFactorService);
+        ReflectionTestUtils.setField(entityService, "postcodeLookupService", postcodeLookupService);
+
+        List<Object[]> postcodeRegionIds = new ArrayList<>();
+        postcodeRegionIds.add(new Object[]{"10115", 1L});
+        postcodeRegionIds.add(new Object[]{"10117", 1L});
+        postcodeRegionIds.add(new Object[]{"20253", 1L});
+        PremiumFactorTable table = PremiumFactorTable.of(List.of(), List.of(),
+                List.of(new Region(1L, "West", 1.5)), postcodeRegionIds);
+        when(premiumFactorService.getTable()).thenReturn(table);
     }
     @AfterEach
     void tearDown() throws Exception {
@@ -118,46 +141,27 @@ class EntityServiceTest {
 
     @Test
     void testFilterPostcodesByInput() {
-        Postcode p1 = new Postcode("10115");
-        Postcode p2 = new Postcode("10117");
-        when(postcodeRepository.findAll()).thenReturn(List.of(p1, p2, new Postcode("20253")));
-
-        List<Postcode> result = entityService.filterPostcodesByInput("101");
-        assertEquals(List.of(p1, p2), result);
-    }
-
-    @Test
-    void testGetSortedPostcodes() {
-        Postcode p1 = new Postcode("10115");
-        Postcode p2 = new Postcode("10117");
-        when(postcodeRepository.findAll()).thenReturn(List.of(p2, p1));
-
-        List<Postcode> result = entityService.getSortedPostcodes();
-        assertEquals(List.of(p1, p2), result);
+        List<String> result = entityService.filterPostcodesByInput("101");
+        assertEquals(List.of("10115", "10117"), result);
+        verifyNoInteractions(postcodeRepository);
     }
 
     @Test
-    void testGetRegionNameByPostcode_WhenRegionExists() {
-        Region region = new Region("West", 1.1);
-        when(regionRepository.findByCities_Name("10115")).thenReturn(region);
+    void testFilterPostcodesByInput_RespectsLimit() {
+        ReflectionTestUtils.setField(entityService, "postcodeFilterLimit", 2);
 
-        String result = entityService.getRegionNameByPostcode("10115");
-        assertEquals("West", result);
+        List<String> result = entityService.filterPostcodesByInput("");
+        assertEquals(List.of("10115", "10117"), result);
     }
 
     @Test
-    void testGetRegionNameByPostcode_WhenRegionDoesNotExist() {
-        when(regionRepository.findByCities_Name("99999")).thenReturn(null);
-
-        String result = entityService.getRegionNameByPostcode("99999");
-        assertEquals("Unbekannt", result);
+    void testFilterPostcodesByInput_InvalidInput() {
+        assertTrue(entityService.filterPostcodesByInput("abc").isEmpty());
+        assertTrue(entityService.filterPostcodesByInput("101155").isEmpty());
     }
 
     @Test
     void testGeneratePostcodeOptions_WithResults() {
-        Postcode p1 = new Postcode("10115");
-        when(postcodeRepository.findAll()).thenReturn(List.of(p1));
-
         String result = entityService.generatePostcodeOptions("101");
         assertTrue(result.contains("<option value=\"10115\">10115</option>"));
     }
@@ -177,51 +181,67 @@ class EntityServiceTest {
     @Test
     void testAddDefaultAttributes() {
         Model model = mock(Model.class);
+        ReflectionTestUtils.setField(entityService, "postcodeListMode", "inline");
         when(vehicleRepository.findAll()).thenReturn(Collections.emptyList());
         when(postcodeRepository.findAll()).thenReturn(Collections.emptyList());
 
         entityService.addDefaultAttributes(model);
 
         verify(model).addAttribute(eq("vehicleList"), anyList());
+        verify(model).addAttribute(eq("vehicleOptions"), any(VehicleOptionFragments.class));
         verify(model).addAttribute(eq("postcodeList"), anyList());
     }
 
     @Test
-    void testIsPostcodeValid_WhenPostcodeExists() {
-        when(postcodeRepository.existsByPostcodeValue("12345")).thenReturn(true);
+    void testAddDefaultAttributes_LazyPostcodeList() {
+        Model model = mock(Model.class);
+        when(vehicleRepository.findAll()).thenReturn(Collections.emptyList());
 
-        boolean result = entityService.isPostcodeValid("12345");
+        entityService.addDefaultAttributes(model);
 
-        assertTrue(result);
+        verify(model).addAttribute(eq("vehicleList"), anyList());
+        verify(model, never()).addAttribute(eq("postcodeList"), any());
+        assertTrue(entityService.getHomePageModel().postcodeList().isEmpty(),
+                "Im Modus lazy sollte keine Postleitzahlenliste aufgebaut werden.");
     }
 
     @Test
-    void testIsPostcodeValid_WhenPostcodeDoesNotExist() {
-        when(postcodeRepository.existsByPostcodeValue("12345")).thenReturn(false);
-
-        boolean result = entityService.isPostcodeValid("12345");
-
-        assertFalse(result);
+    void testGetHomePageModel_BuiltOncePerTable() {
+        ReflectionTestUtils.setField(entityService, "postcodeListMode", "inline");
+        when(vehicleRepository.findAll()).thenReturn(new ArrayList<>(List.of(
+                new Vehicle(2L, "BMW", 1.1), new Vehicle(1L, "Audi", 1.2))));
+
+        var first = entityService.getHomePageModel();
+        var second = entityService.getHomePageModel();
+
+        assertSame(first, second);
+        assertEquals(List.of("Audi", "BMW"), first.vehicleList().stream().map(Vehicle::getName).toList());
+        assertEquals(List.of("10115", "10117", "20253"), first.postcodeList());
+        assertThrows(UnsupportedOperationException.class, () -> first.postcodeList().add("99999"));
+        verify(vehicleRepository, times(1)).findAll();
+        verifyNoInteractions(postcodeRepository);
+
+        when(premiumFactorService.getTable()).thenReturn(PremiumFactorTable.EMPTY);
+        assertNotSame(first, entityService.getHomePageModel());
+        verify(vehicleRepository, times(2)).findAll();
     }
 
     @Test
     void testGetRegionFactor_WhenRegionExists() {
-        Region region = new Region("West", 1.5);
-        when(regionRepository.findByPostcodeValueStartingWith("101")).thenReturn(Optional.of(region));
-
-        double result = entityService.getRegionFactor("101");
+        double result = entityService.getRegionFactor("10115");
 
         assertEquals(1.5, result);
+        verifyNoInteractions(regionRepository);
     }
 
     @Test
     void testGetRegionFactor_WhenRegionDoesNotExist() {
-        when(regionRepository.findByPostcodeValueStartingWith("999")).thenReturn(Optional.empty());
         doNothing().when(errorHandlingService).logAndThrowError(anyString());
 
-        double result = entityService.getRegionFactor("999");
+        double result = entityService.getRegionFactor("99999");
 
         assertEquals(0, result);
+        verify(errorHandlingService).logAndThrowError("Region für Postleitzahl 99999 nicht gefunden.");
     }
 
     @Test
@@ -245,4 +265,24 @@ class EntityServiceTest {
         assertNotNull(result);
         assertTrue(result.getAnnoKilometers().isEmpty());
     }
+
+    @Test
+    void testMappedLookup() throws Exception {
+        Path path = tempDir.resolve("postcode-lookup.bin");
+        MappedPostcodeLookup.write(path, new ReferenceDataSnapshot(0L, List.of(), List.of(),
+                List.of(new ReferenceDataSnapshot.RegionRow(3L, "Berlin", 2.0)),
+                List.of(new ReferenceDataSnapshot.CityRow(5L, "Berlin", 3L)),
+                List.of(new ReferenceDataSnapshot.PostcodeRow(9L, "10115", 5L, 3L))));
+        when(postcodeLookupService.getLookup()).thenReturn(MappedPostcodeLookup.open(path));
+
+        Optional<Postcode> postcode = entityService.findPostcode("10115");
+        Optional<City> city = entityService.findCityByPostcode("10115");
+
+        assertTrue(postcode.isPresent());
+        assertEquals(9L, postcode.get().getId());
+        assertEquals("Berlin", city.orElseThrow().getName());
+        assertEquals(2.0, entityService.getRegionFactor("10115"));
+        assertTrue(entityService.findPostcode("20253").isEmpty());
+        verifyNoInteractions(postcodeRepository, cityRepository);
+    }
 }
@@ -0,0 +1,99 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.cache.PremiumMatrix;
+import com.sina_reidenbach.insurancePremium.dto.AnnoKilometersResponse;
+import com.sina_reidenbach.insurancePremium.dto.RegionResponse;
+import com.sina_reidenbach.insurancePremium.dto.VehicleResponse;
+import com.sina_reidenbach.insurancePremium.model.Anno_Kilometers;
+import com.sina_reidenbach.insurancePremium.model.Region;
+import com.sina_reidenbach.insurancePremium.model.Vehicle;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OptionsResponseServiceTest {
+
+    @Mock
+    private EntityService entityService;
+    @Mock
+    private PremiumFactorService premiumFactorService;
+    @Mock
+    private CalculateService calculateService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OptionsResponseService optionsResponseService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        var vehicleResponse = new VehicleResponse();
+        vehicleResponse.setVehicles(Map.of(1L, Map.of("vehicleName", "SUV", "factor", 1.5)));
+        when(entityService.getVehicles()).thenReturn(vehicleResponse);
+        when(entityService.getRegions()).thenReturn(new RegionResponse());
+        when(entityService.getAnnoKilometers()).thenReturn(new AnnoKilometersResponse());
+        when(premiumFactorService.getTable()).thenReturn(PremiumFactorTable.EMPTY);
+    }
+
+    @Test
+    void testGetVehicles_SerializedOnce() {
+        var first = optionsResponseService.getVehicles();
+        var second = optionsResponseService.getVehicles();
+        optionsResponseService.getRegions();
+
+        assertSame(first, second);
+        assertTrue(new String(first.body(), StandardCharsets.UTF_8).contains("\"vehicleName\":\"SUV\""));
+        assertEquals(first.etag(), optionsResponseService.getVehicles().etag());
+        verify(entityService, times(1)).getVehicles();
+        verify(entityService, times(1)).getRegions();
+    }
+
+    @Test
+    void testGetVehicles_RefreshedAfterReload() {
+        var before = optionsResponseService.getVehicles();
+
+        var changed = new VehicleResponse();
+        changed.setVehicles(Map.of(1L, Map.of("vehicleName", "SUV", "factor", 2.0)));
+        when(entityService.getVehicles()).thenReturn(changed);
+        when(premiumFactorService.getTable()).thenReturn(PremiumFactorTable.of(
+                List.of(new Vehicle(1L, "SUV", 2.0)), List.of(), List.of(), List.of()));
+        var after = optionsResponseService.getVehicles();
+
+        assertNotEquals(before.etag(), after.etag());
+        verify(entityService, times(2)).getVehicles();
+    }
+
+    @Test
+    void testGetPremiumMatrix_EtagCoversNames() {
+        var table = PremiumFactorTable.of(List.of(new Vehicle(1L, "SUV", 1.5)),
+                List.of(new Anno_Kilometers(1L, 0, 5000, 0.5)),
+                List.of(new Region(10L, "Nordrhein-Westfalen", 1.5)),
+                Collections.singletonList(new Object[]{"51373", 10L}));
+        var renamed = PremiumFactorTable.of(List.of(new Vehicle(1L, "Geländewagen (SUV)", 1.5)),
+                List.of(new Anno_Kilometers(1L, 0, 5000, 0.5)),
+                List.of(new Region(10L, "Nordrhein-Westfalen", 1.5)),
+                Collections.singletonList(new Object[]{"51373", 10L}));
+        var matrix = PremiumMatrix.of(table, 500);
+        when(calculateService.getPremiumMatrix()).thenReturn(matrix);
+
+        var first = optionsResponseService.getPremiumMatrix();
+        assertSame(first, optionsResponseService.getPremiumMatrix());
+        assertTrue(new String(first.body(), StandardCharsets.UTF_8).contains("\"name\":\"SUV\""));
+
+        when(calculateService.getPremiumMatrix()).thenReturn(PremiumMatrix.of(renamed, 500));
+        var second = optionsResponseService.getPremiumMatrix();
+
+        assertEquals(matrix.premium(1L, 0, 0), PremiumMatrix.of(renamed, 500).premium(1L, 0, 0));
+        assertNotEquals(first.etag(), second.etag());
+    }
+}
@@ -0,0 +1,84 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sina_reidenbach.insurancePremium.cache.PremiumFactorTable;
+import com.sina_reidenbach.insurancePremium.dto.PremiumBatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PremiumStreamServiceTest {
+
+    @InjectMocks
+    private PremiumStreamService premiumStreamService;
+
+    @Mock
+    private CalculateService calculateService;
+
+    @Mock
+    private PremiumFactorService premiumFactorService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(premiumFactorService.getTable()).thenReturn(PremiumFactorTable.EMPTY);
+        when(calculateService.calculateItem(any(), anyInt(), any())).thenAnswer(invocation -> {
+            int index = invocation.getArgument(1);
+            return index == 2
+                    ? new PremiumBatchResult(index, null, List.of("Kein Fahrzeug mit der angegebenen ID gefunden."))
+                    : new PremiumBatchResult(index, 562.5, List.of());
+        });
+    }
+
+    @Test
+    void testCalculateNdjson() throws Exception {
+        var input = """
+                {"vehicleId":14,"annoKilometers":2000,"postcode":"51373"}
+                {"vehicleId":999,"annoKilometers":2000,"postcode":"51373"}
+
+                kein json
+                """;
+        var output = new ByteArrayOutputStream();
+
+        var summary = premiumStreamService.calculate(stream(input), false, output);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"premium\":562.5"));
+        assertTrue(lines[2].contains("Zeile konnte nicht gelesen werden."));
+        assertTrue(lines[3].startsWith("{\"summary\""));
+        assertEquals(3, summary.getLines());
+        assertEquals(1, summary.getPriced());
+        assertEquals(2, summary.getRejected());
+    }
+
+    @Test
+    void testCalculateCsvSkipsHeader() throws Exception {
+        var input = "vehicleId,annoKilometers,postcode\n14,2000,51373\n";
+        var output = new ByteArrayOutputStream();
+
+        var summary = premiumStreamService.calculate(stream(input), true, output);
+
+        assertEquals(1, summary.getLines());
+        assertEquals(0, summary.getRejected());
+        verify(calculateService).calculateItem(any(), eq(2), argThat(item ->
+                item.getVehicleId() == 14L && item.getAnnoKilometers() == 2000 && "51373".equals(item.getPostcode())));
+    }
+
+    private static ByteArrayInputStream stream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsDeduplicatorTest {
+
+    private final StatisticsDeduplicator statisticsDeduplicator = new StatisticsDeduplicator();
+
+    @Test
+    void testMarkIfNewDetectsDuplicate() {
+        var dateTime = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_000_000);
+
+        assertTrue(statisticsDeduplicator.markIfNew(dateTime, "51373", 1L));
+        assertFalse(statisticsDeduplicator.markIfNew(dateTime, "51373", 1L));
+        assertTrue(statisticsDeduplicator.markIfNew(dateTime, "51373", 2L));
+        assertTrue(statisticsDeduplicator.markIfNew(dateTime, null, 1L));
+        assertFalse(statisticsDeduplicator.markIfNew(dateTime, null, 1L));
+        assertTrue(statisticsDeduplicator.markIfNew(dateTime.plusNanos(1), "51373", 1L));
+    }
+
+    @Test
+    void testOldBucketsExpire() {
+        var start = LocalDateTime.of(2025, 3, 1, 12, 0);
+        statisticsDeduplicator.markIfNew(start, "51373", 1L);
+
+        statisticsDeduplicator.markIfNew(start.plusHours(1), "10115", 1L);
+
+        assertEquals(1, statisticsDeduplicator.size());
+        assertTrue(statisticsDeduplicator.markIfNew(start, "51373", 1L));
+    }
+
+    @Test
+    void testConcurrentMarkAcceptsEachKeyOnce() {
+        var dateTime = LocalDateTime.of(2025, 3, 1, 12, 0);
+        var accepted = new AtomicInteger();
+        var seen = ConcurrentHashMap.<Integer>newKeySet();
+
+        IntStream.range(0, 8_000).parallel().forEach(i -> {
+            if (statisticsDeduplicator.markIfNew(dateTime, String.valueOf(i % 1000), 1L)) {
+                accepted.incrementAndGet();
+                assertTrue(seen.add(i % 1000));
+            }
+        });
+
+        assertEquals(1000, accepted.get());
+    }
+}
@@ -0,0 +1,76 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatisticsPartitionServiceTest {
+
+    @InjectMocks
+    private StatisticsPartitionService statisticsPartitionService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testToDaysMatchesMySql() {
+        assertEquals(733321, StatisticsPartitionService.toDays(LocalDate.of(2007, 10, 7)));
+        assertEquals(LocalDate.of(2007, 10, 7), StatisticsPartitionService.fromDays("733321"));
+        assertNull(StatisticsPartitionService.fromDays("MAXVALUE"));
+    }
+
+    @Test
+    void testMaintainDeletesExpiredRowsWithoutPartitions() {
+        ReflectionTestUtils.setField(statisticsPartitionService, "retentionDays", 30);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        statisticsPartitionService.maintain(LocalDate.of(2025, 3, 31));
+
+        verify(jdbcTemplate).update("DELETE FROM statistics WHERE date_time < ?", LocalDate.of(2025, 3, 1).atStartOfDay());
+    }
+
+    @Test
+    void testMaintainDoesNothingWithoutRetention() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        statisticsPartitionService.maintain(LocalDate.of(2025, 3, 31));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMaintainAddsAndDropsMonthlyPartitions() {
+        ReflectionTestUtils.setField(statisticsPartitionService, "retentionDays", 30);
+        ReflectionTestUtils.setField(statisticsPartitionService, "ahead", 1);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("statistics"))).thenReturn(List.of(
+                new StatisticsPartitionService.Partition("p20250101", LocalDate.of(2025, 2, 1)),
+                new StatisticsPartitionService.Partition("p20250201", LocalDate.of(2025, 3, 1)),
+                new StatisticsPartitionService.Partition("p20250301", LocalDate.of(2025, 4, 1)),
+                new StatisticsPartitionService.Partition("pmax", null)));
+
+        statisticsPartitionService.maintain(LocalDate.of(2025, 3, 15));
+
+        verify(jdbcTemplate).execute("ALTER TABLE statistics REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p20250401 VALUES LESS THAN (" + StatisticsPartitionService.toDays(LocalDate.of(2025, 5, 1)) + "), "
+                + "PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        verify(jdbcTemplate).execute("ALTER TABLE statistics DROP PARTITION p20250101");
+    }
+}
@@ -0,0 +1,110 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.InsurancePremiumApplication;
+import com.sina_reidenbach.insurancePremium.model.Statistics;
+import com.sina_reidenbach.insurancePremium.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = InsurancePremiumApplication.class)
+@ActiveProfiles("test")
+class StatisticsRollupServiceTest {
+
+    @Autowired
+    private StatisticsRollupService statisticsRollupService;
+
+    @Autowired
+    private PremiumFactorService premiumFactorService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    private Long motorrad;
+    private Long bus;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM statistics_rollup");
+        motorrad = vehicleRepository.findByName("Motorrad").getId();
+        bus = vehicleRepository.findByName("Bus").getId();
+    }
+
+    @Test
+    void testRecordAggregatesPerHour() {
+        statisticsRollupService.record(List.of(
+                entry(start.plusMinutes(5), "10115", motorrad, 4000, 400.0),
+                entry(start.plusMinutes(40), "10115", motorrad, 12000, 500.0)));
+        statisticsRollupService.record(List.of(entry(start.plusMinutes(70), "10115", motorrad, 12000, 600.0)));
+
+        var rollups = statisticsRollupService.query(StatisticsRollupService.Granularity.HOUR,
+                start, start.plusHours(1), null, null);
+
+        assertEquals(1, rollups.size());
+        var rollup = rollups.get(0);
+        assertEquals(premiumFactorService.getTable().regionName("10115"), rollup.getRegion());
+        assertEquals("Motorrad", rollup.getVehicle());
+        assertEquals(2, rollup.getCount());
+        assertEquals(900.0, rollup.getPremiumSum());
+        assertEquals(400.0, rollup.getPremiumMin());
+        assertEquals(500.0, rollup.getPremiumMax());
+        assertEquals(450.0, rollup.getPremiumAverage());
+        assertEquals(1L, rollup.getKmHistogram().get("0-5000"));
+        assertEquals(1L, rollup.getKmHistogram().get("10001-20000"));
+    }
+
+    @Test
+    void testRecordAddsUpAcrossCalls() {
+        statisticsRollupService.record(List.of(entry(start, "10115", motorrad, 4000, 400.0)));
+        statisticsRollupService.record(List.of(entry(start.plusSeconds(30), "10115", motorrad, 4000, 200.0)));
+
+        var rollups = statisticsRollupService.query(StatisticsRollupService.Granularity.MINUTE,
+                start, start.plusMinutes(1), null, "Motorrad");
+
+        assertEquals(1, rollups.size());
+        assertEquals(2, rollups.get(0).getCount());
+        assertEquals(200.0, rollups.get(0).getPremiumMin());
+        assertEquals(400.0, rollups.get(0).getPremiumMax());
+    }
+
+    @Test
+    void testQueryFiltersByRegionAndVehicle() {
+        var region = premiumFactorService.getTable().regionName("10115");
+        statisticsRollupService.record(List.of(
+                entry(start, "10115", motorrad, 4000, 400.0),
+                entry(start, "00000", bus, 4000, 300.0)));
+
+        var day = StatisticsRollupService.Granularity.DAY;
+        assertEquals(2, statisticsRollupService.query(day, start.minusDays(1), start.plusDays(1), null, null).size());
+        assertEquals(1, statisticsRollupService.query(day, start.minusDays(1), start.plusDays(1), region, null).size());
+        assertEquals("Unbekannt", statisticsRollupService.query(day, start.minusDays(1), start.plusDays(1),
+                null, "Bus").get(0).getRegion());
+    }
+
+    @Test
+    void testOldMinuteBucketsExpire() {
+        statisticsRollupService.record(List.of(entry(start, "10115", motorrad, 4000, 400.0)));
+        statisticsRollupService.record(List.of(entry(start.plusDays(2), "10115", motorrad, 4000, 400.0)));
+
+        var minute = StatisticsRollupService.Granularity.MINUTE;
+        assertTrue(statisticsRollupService.query(minute, start, start.plusMinutes(1), null, null).isEmpty());
+        assertEquals(1, statisticsRollupService.query(StatisticsRollupService.Granularity.DAY,
+                start.minusDays(1), start.plusDays(1), null, null).size());
+    }
+
+    private static Statistics entry(LocalDateTime dateTime, String postcode, Long vehicleId, int km, double premium) {
+        return new Statistics(dateTime, postcode, vehicleId, km, premium, "127.0.0.1");
+    }
+}
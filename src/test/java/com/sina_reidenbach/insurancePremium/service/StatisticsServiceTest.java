@@ -7,6 +7,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDateTime;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,6 +22,15 @@ class StatisticsServiceTest {
     @Mock
     private StatisticsRepository statisticsRepository;
 
+    @Mock
+    private StatisticsWriteBuffer statisticsWriteBuffer;
+
+    @Mock
+    private StatisticsRollupService statisticsRollupService;
+
+    @Spy
+    private StatisticsDeduplicator statisticsDeduplicator = new StatisticsDeduplicator();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -28,12 +40,12 @@ class StatisticsServiceTest {
     void testSaveStatistics() {
         LocalDateTime dateTime = LocalDateTime.now();
         String postcode = "12345";
-        String vehicleName = "TestVehicle";
+        Long vehicleId = 14L;
         int km = 15000;
         double premium = 200.0;
         String ipAddress = "192.168.0.1";
 
-        statisticsService.saveStatistics(dateTime, postcode, vehicleName, km, premium, ipAddress);
+        statisticsService.saveStatistics(dateTime, postcode, vehicleId, km, premium, ipAddress);
 
         verify(statisticsRepository, times(1)).save(any(Statistics.class));
     }
@@ -42,32 +54,66 @@ class StatisticsServiceTest {
     void testSaveStatisticsWithNullValues() {
         LocalDateTime dateTime = LocalDateTime.now();
         String postcode = null;
-        String vehicleName = "TestVehicle";
+        Long vehicleId = 14L;
         int km = 15000;
         double premium = 200.0;
         String ipAddress = "192.168.0.1";
 
-        assertDoesNotThrow(() -> statisticsService.saveStatistics(dateTime, postcode, vehicleName, km, premium, ipAddress));
+        assertDoesNotThrow(() -> statisticsService.saveStatistics(dateTime, postcode, vehicleId, km, premium, ipAddress));
     }
 
     @Test
     void testSaveStatisticsCallsRepositoryWithCorrectData() {
         LocalDateTime dateTime = LocalDateTime.now();
         String postcode = "54321";
-        String vehicleName = "VehicleX";
+        Long vehicleId = 1L;
         int km = 10000;
         double premium = 150.0;
         String ipAddress = "10.0.0.1";
 
-        statisticsService.saveStatistics(dateTime, postcode, vehicleName, km, premium, ipAddress);
+        statisticsService.saveStatistics(dateTime, postcode, vehicleId, km, premium, ipAddress);
 
         verify(statisticsRepository).save(argThat(statistics ->
                 statistics.getDateTime().equals(dateTime) &&
                         statistics.getPostcode().equals(postcode) &&
-                        statistics.getVehicle().equals(vehicleName) &&
+                        statistics.getVehicleId().equals(vehicleId) &&
                         statistics.getAnnokilometers() == km &&
                         statistics.getPremium() == premium &&
                         statistics.getIpAddress().equals(ipAddress)
         ));
     }
+
+    @Test
+    void testSaveStatisticsAsync() {
+        ReflectionTestUtils.setField(statisticsService, "async", true);
+        LocalDateTime dateTime = LocalDateTime.now();
+
+        statisticsService.saveStatistics(dateTime, "51373", 1L, 10000, 150.0, "10.0.0.1");
+
+        verify(statisticsWriteBuffer).offer(argThat(statistics ->
+                statistics.getDateTime().equals(dateTime) && statistics.getPostcode().equals("51373")));
+        verifyNoInteractions(statisticsRepository);
+        verifyNoInteractions(statisticsRollupService);
+    }
+
+    @Test
+    void testSaveStatisticsSkipsDuplicateWithoutQuery() {
+        LocalDateTime dateTime = LocalDateTime.now();
+
+        statisticsService.saveStatistics(dateTime, "51373", 1L, 10000, 150.0, "10.0.0.1");
+        statisticsService.saveStatistics(dateTime, "51373", 1L, 10000, 150.0, "10.0.0.2");
+
+        verify(statisticsRepository, times(1)).save(any(Statistics.class));
+        verify(statisticsRepository, never()).findByDateTimeAndPostcodeAndVehicleId(any(), any(), any());
+        verify(statisticsRollupService, times(1)).record(anyList());
+    }
+
+    @Test
+    void testSaveStatisticsSkipsRollupWhenSaveFails() {
+        when(statisticsRepository.save(any(Statistics.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        statisticsService.saveStatistics(LocalDateTime.now(), "51373", 1L, 10000, 150.0, "10.0.0.1");
+
+        verifyNoInteractions(statisticsRollupService);
+    }
 }
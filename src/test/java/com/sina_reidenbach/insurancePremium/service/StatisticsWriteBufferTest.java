@@ -0,0 +1,146 @@
+package com.sina_reidenbach.insurancePremium.service;
+
+import com.sina_reidenbach.insurancePremium.model.Statistics;
+import com.sina_reidenbach.insurancePremium.repository.StatisticsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatisticsWriteBufferTest {
+
+    @InjectMocks
+    private StatisticsWriteBuffer statisticsWriteBuffer;
+
+    @Mock
+    private StatisticsRepository statisticsRepository;
+
+    @Mock
+    private StatisticsRollupService statisticsRollupService;
+
+    @TempDir
+    Path tempDir;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "flushIntervalMs", 50L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        statisticsWriteBuffer.stop();
+        closeable.close();
+    }
+
+    @Test
+    void testOfferIsWrittenInBackground() {
+        statisticsWriteBuffer.start();
+
+        assertTrue(statisticsWriteBuffer.offer(entry("51373")));
+        assertTrue(statisticsWriteBuffer.offer(entry("10115")));
+
+        verify(statisticsRepository, timeout(2000).atLeastOnce()).saveAll(anyIterable());
+        verify(statisticsRollupService, timeout(2000).atLeastOnce()).record(anyList());
+        verify(statisticsRepository, never()).findByDateTimeAndPostcodeAndVehicleId(any(), any(), any());
+    }
+
+    @Test
+    void testConstraintViolationFallsBackToSingleInserts() {
+        var entry = entry("51373");
+        var duplicate = entry("10115");
+        when(statisticsRepository.saveAll(anyIterable())).thenThrow(new DataIntegrityViolationException("uk_statistics_entry"));
+        when(statisticsRepository.save(duplicate)).thenThrow(new DataIntegrityViolationException("uk_statistics_entry"));
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "queue", new ArrayBlockingQueue<Statistics>(10));
+        statisticsWriteBuffer.offer(entry);
+        statisticsWriteBuffer.offer(duplicate);
+
+        statisticsWriteBuffer.start();
+
+        verify(statisticsRepository, timeout(2000)).save(duplicate);
+        verify(statisticsRepository).save(entry);
+        statisticsWriteBuffer.stop();
+        verify(statisticsRollupService).record(List.of(entry));
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getWritten());
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getDuplicates());
+    }
+
+    @Test
+    void testDropWhenFull() {
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "queue", new ArrayBlockingQueue<Statistics>(1));
+
+        assertTrue(statisticsWriteBuffer.offer(entry("51373")));
+        assertFalse(statisticsWriteBuffer.offer(entry("10115")));
+
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getQueueDepth());
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getDropped());
+    }
+
+    @Test
+    void testSpillWhenFull() throws IOException {
+        var spillFile = tempDir.resolve("statistics-spill.tsv");
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "overflowPolicy", StatisticsWriteBuffer.OverflowPolicy.SPILL);
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "spillPath", spillFile.toString());
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "queue", new ArrayBlockingQueue<Statistics>(1));
+
+        assertTrue(statisticsWriteBuffer.offer(entry("51373")));
+        assertTrue(statisticsWriteBuffer.offer(entry("10115")));
+
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getSpilled());
+        assertEquals(1, Files.readAllLines(spillFile).size());
+
+        statisticsWriteBuffer.start();
+
+        verify(statisticsRepository, timeout(2000).times(2)).saveAll(anyIterable());
+        statisticsWriteBuffer.stop();
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void testReplaySkipsMalformedLines() throws IOException {
+        var spillFile = tempDir.resolve("statistics-spill.tsv");
+        ReflectionTestUtils.setField(statisticsWriteBuffer, "spillPath", spillFile.toString());
+        Files.writeString(spillFile, String.join("\n",
+                "2025-03-01T12:00\t51373\t1\t10000\t150.0\t10.0.0.1",
+                "2025-03-01T12:00\t10115\t1\t10000\tkeine Zahl\t10.0.0.1",
+                "2025-03-01T1"));
+
+        statisticsWriteBuffer.start();
+
+        verify(statisticsRepository, timeout(2000)).saveAll(anyIterable());
+        statisticsWriteBuffer.stop();
+        verify(statisticsRepository, times(1)).saveAll(anyIterable());
+        assertFalse(Files.exists(spillFile));
+        assertFalse(Files.exists(tempDir.resolve("statistics-spill.tsv.replay")));
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getWritten());
+        assertEquals(1, statisticsWriteBuffer.getMetrics().getFailed());
+    }
+
+    @Test
+    void testInit_DoesNotStartWhenSynchronous() {
+        statisticsWriteBuffer.init();
+
+        assertNull(ReflectionTestUtils.getField(statisticsWriteBuffer, "flusher"));
+        assertEquals(0, statisticsWriteBuffer.getMetrics().getQueueDepth());
+    }
+
+    private static Statistics entry(String postcode) {
+        return new Statistics(LocalDateTime.of(2025, 3, 1, 12, 0), postcode, 1L, 10000, 150.0, "10.0.0.1");
+    }
+}